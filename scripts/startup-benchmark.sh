@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Compares start-up of the service with and without the AppCDS archive: time until the first
+# request is answered, and the latency of the first few requests after that.
+#
+# Build first with: mvn -Pappcds package -DskipTests
+# Usage: scripts/startup-benchmark.sh [runs per mode, default 3]
+# The benchmarked route calls no Google API, so GOOGLE_API_KEY falls back to a placeholder.
+set -euo pipefail
+export GOOGLE_API_KEY=${GOOGLE_API_KEY:-benchmark-placeholder}
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-3}
+JAR=$(ls target/*.jar | grep -v -e sources -e javadoc | head -1)
+CLASSPATH="$JAR:$(cat target/appcds.classpath)"
+ARCHIVE=target/app-cds.jsa
+URL=http://localhost:9000/flight/availability/2099-01-01-12
+
+if [[ ! -f "$ARCHIVE" ]]; then
+  echo "No $ARCHIVE, build it with: mvn -Pappcds package -DskipTests" >&2
+  exit 1
+fi
+
+now_ms() { date +%s%3N; }
+
+# Prints "<ms until first answer> <ms of requests 2-6, space separated>"
+measure() {
+  local start pid ready
+  start=$(now_ms)
+  java "$@" -Dakka.javasdk.dev-mode.enabled=true -cp "$CLASSPATH" kalix.runtime.AkkaRuntimeMain \
+    > target/startup-benchmark.log 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "$URL"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "service exited, see target/startup-benchmark.log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  ready=$(( $(now_ms) - start ))
+  local latencies=""
+  for _ in 1 2 3 4 5; do
+    latencies+=" $(curl -s -o /dev/null -w '%{time_total}' "$URL" | awk '{printf "%d", $1 * 1000}')"
+  done
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$ready$latencies"
+}
+
+for mode in default appcds; do
+  for run in $(seq "$RUNS"); do
+    if [[ $mode == appcds ]]; then
+      result=$(measure -XX:SharedArchiveFile="$ARCHIVE")
+    else
+      result=$(measure)
+    fi
+    echo "$mode run $run: first answer after $(cut -d' ' -f1 <<<"$result")ms, next requests (ms):$(cut -d' ' -f2- <<<"$result" | sed 's/^/ /')"
+  done
+done
@@ -0,0 +1,79 @@
+package io.example;
+
+import akka.javasdk.DependencyProvider;
+import akka.javasdk.ServiceSetup;
+import akka.javasdk.annotations.Setup;
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import io.example.api.IdempotencyStore;
+import io.example.application.AgentMetrics;
+import io.example.application.FlightConditionsClient;
+import io.example.application.GoogleWeatherService;
+import io.example.application.WarmUp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Creates the service-wide singletons once at startup and hands them to components through
+// constructor injection. Components (agents, endpoints) are instantiated per request, so
+// anything holding connection pools or breaker state must live here rather than in them.
+@Setup
+public class Bootstrap implements ServiceSetup {
+
+    private static final Logger log = LoggerFactory.getLogger(Bootstrap.class);
+
+    private final GoogleWeatherService weatherService;
+    private final AgentMetrics agentMetrics;
+    private final FlightConditionsClient conditionsClient;
+    private final IdempotencyStore idempotencyStore;
+    private final Config warmUpSettings;
+    private final ComponentClient componentClient;
+
+    public Bootstrap(ComponentClient componentClient, Config config) {
+        var settings = config.getConfig("flight-conditions");
+        this.weatherService = new GoogleWeatherService(settings, System.getenv("GOOGLE_API_KEY"));
+        this.agentMetrics = new AgentMetrics();
+        this.conditionsClient = new FlightConditionsClient(componentClient, weatherService, settings, agentMetrics);
+        var worstCase = FlightConditionsClient.worstCaseCallTime(config);
+        if (worstCase.compareTo(conditionsClient.callTimeout()) > 0) {
+            log.warn("The model-breaker call-timeout of {}s is shorter than the {}s an agent call may take with the "
+                    + "configured model and weather timeouts, slow calls will be cut off by the breaker",
+                    conditionsClient.callTimeout().toSeconds(), worstCase.toSeconds());
+        }
+        this.idempotencyStore = new IdempotencyStore(config.getConfig("flight-endpoint.idempotency"));
+        this.warmUpSettings = config.getConfig("warm-up");
+        this.componentClient = componentClient;
+    }
+
+    // Warms up codecs, domain hot paths, component client reads and the weather API connections
+    // before the first requests. With exit-after set the process exits once done, which is how the AppCDS
+    // archive is recorded (see the appcds profile in pom.xml).
+    @Override
+    public void onStartup() {
+        if (warmUpSettings.getBoolean("enabled")) {
+            new WarmUp(componentClient, weatherService, warmUpSettings).run();
+        }
+        if (warmUpSettings.getBoolean("exit-after")) {
+            System.exit(0);
+        }
+    }
+
+    @Override
+    public DependencyProvider createDependencyProvider() {
+        return new DependencyProvider() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getDependency(Class<T> clazz) {
+                if (clazz == GoogleWeatherService.class) {
+                    return (T) weatherService;
+                } else if (clazz == FlightConditionsClient.class) {
+                    return (T) conditionsClient;
+                } else if (clazz == AgentMetrics.class) {
+                    return (T) agentMetrics;
+                } else if (clazz == IdempotencyStore.class) {
+                    return (T) idempotencyStore;
+                }
+                throw new IllegalArgumentException("No dependency provided for " + clazz.getName());
+            }
+        };
+    }
+}
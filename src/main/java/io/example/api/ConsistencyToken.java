@@ -0,0 +1,58 @@
+package io.example.api;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// A read-your-writes token handed out by the write routes of the FlightEndpoint. It lists the
+// participant slot rows the write will produce once ParticipantSlotsView has caught up with it
+// (slot, participant and resulting status), along with the time just before the write was made.
+// View-backed routes accept it back and wait briefly until the view shows those rows, rather
+// than answering with data that predates the write. A row that has moved on to a later state
+// satisfies the token too. Clients treat it as opaque.
+public record ConsistencyToken(Instant issuedAt, List<Expectation> expectations) {
+
+    public static final String HEADER = "X-Consistency-Token";
+
+    public record Expectation(String slotId, String participantId, String status) {}
+
+    // issuedAt must be taken before the write, so every event the write produces is at or after it
+    public static ConsistencyToken of(Instant issuedAt, String slotId, String status, String... participantIds) {
+        var expectations = new ArrayList<Expectation>();
+        for (String participantId : participantIds) {
+            expectations.add(new Expectation(slotId, participantId, status));
+        }
+        return new ConsistencyToken(issuedAt, expectations);
+    }
+
+    public String encode() {
+        var lines = new ArrayList<String>();
+        lines.add(Long.toString(issuedAt.toEpochMilli()));
+        expectations.forEach(e -> lines.add(e.slotId() + "\t" + e.participantId() + "\t" + e.status()));
+        var raw = String.join("\n", lines);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException for a malformed token
+    public static ConsistencyToken decode(String token) {
+        var raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        var lines = raw.split("\n");
+        Instant issuedAt;
+        try {
+            issuedAt = Instant.ofEpochMilli(Long.parseLong(lines[0]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed consistency token");
+        }
+        var expectations = new ArrayList<Expectation>();
+        for (int i = 1; i < lines.length; i++) {
+            var fields = lines[i].split("\t");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Malformed consistency token");
+            }
+            expectations.add(new Expectation(fields[0], fields[1], fields[2]));
+        }
+        return new ConsistencyToken(issuedAt, expectations);
+    }
+}
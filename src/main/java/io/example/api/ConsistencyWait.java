@@ -0,0 +1,72 @@
+package io.example.api;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// Waits until a view shows every row a ConsistencyToken expects, polling with exponential
+// backoff for at most the configured time. Nothing blocks in the meantime: the view lookups are
+// asynchronous and each poll is scheduled on a delayed executor. The result says whether the view
+// caught up; a read that times out answers with whatever the view has, same as without a token.
+//
+// The deadline is measured on this instance's monotonic clock, so it is unaffected by the clocks
+// of other instances. Only the token's issuedAt is compared across instances, see FlightEndpoint.
+public class ConsistencyWait {
+
+    static final Duration FIRST_BACKOFF = Duration.ofMillis(10);
+    static final Duration MAX_BACKOFF = Duration.ofMillis(200);
+
+    private final Duration maxWait;
+    private final LongSupplier nanoClock;
+    private final Function<Duration, Executor> delays;
+
+    public ConsistencyWait(Duration maxWait) {
+        this(maxWait, System::nanoTime,
+                delay -> CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    // For tests, with a clock and delays that need not be real
+    ConsistencyWait(Duration maxWait, LongSupplier nanoClock, Function<Duration, Executor> delays) {
+        this.maxWait = maxWait;
+        this.nanoClock = nanoClock;
+        this.delays = delays;
+    }
+
+    public Duration maxWait() {
+        return maxWait;
+    }
+
+    // Completes with true once viewShows has held for every expectation in turn, or with false
+    // when the time is up
+    public CompletionStage<Boolean> await(ConsistencyToken token,
+                                          Function<ConsistencyToken.Expectation, CompletionStage<Boolean>> viewShows) {
+        long deadline = nanoClock.getAsLong() + maxWait.toNanos();
+        return awaitFrom(token.expectations(), 0, FIRST_BACKOFF, deadline, viewShows);
+    }
+
+    private CompletionStage<Boolean> awaitFrom(List<ConsistencyToken.Expectation> expectations, int index,
+                                               Duration backoff, long deadline,
+                                               Function<ConsistencyToken.Expectation, CompletionStage<Boolean>> viewShows) {
+        if (index == expectations.size()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return viewShows.apply(expectations.get(index)).thenCompose(shown -> {
+            if (shown) {
+                return awaitFrom(expectations, index + 1, backoff, deadline, viewShows);
+            }
+            long remainingNanos = deadline - nanoClock.getAsLong();
+            if (remainingNanos <= 0) {
+                return CompletableFuture.completedFuture(false);
+            }
+            var delay = backoff.toNanos() < remainingNanos ? backoff : Duration.ofNanos(remainingNanos);
+            var nextBackoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) < 0 ? backoff.multipliedBy(2) : MAX_BACKOFF;
+            return CompletableFuture.runAsync(() -> {}, delays.apply(delay))
+                    .thenCompose(ignored -> awaitFrom(expectations, index, nextBackoff, deadline, viewShows));
+        });
+    }
+}
@@ -1,18 +1,48 @@
 package io.example.api;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Collections;
-import java.util.UUID;
-
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import io.example.application.BookingIndexEntity;
+import io.example.application.BookingMatcher;
 import io.example.application.BookingSlotEntity;
 import io.example.application.FlightConditionsAgent;
+import io.example.application.FlightConditionsClient;
+import io.example.application.ForecastHour;
+import io.example.application.GoogleWeatherService;
+import io.example.application.ParticipantScheduleEntity;
 import io.example.application.ParticipantSlotsView;
+import io.example.application.ParticipantSlotsViewV1;
+import io.example.application.UtilizationView;
+import io.example.application.WaitlistEntity;
+import io.example.application.WaitlistRetrier;
 import io.example.domain.Participant;
+import io.example.domain.SlotKey;
+import com.typesafe.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import akka.NotUsed;
+import akka.http.javadsl.model.ContentType;
+import akka.http.javadsl.model.HttpCharsets;
+import akka.http.javadsl.model.HttpEntities;
+import akka.http.javadsl.model.HttpHeader;
 import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.MediaTypes;
+import akka.http.javadsl.model.StatusCodes;
+import akka.http.javadsl.model.headers.RawHeader;
+import akka.javasdk.CommandException;
+import akka.javasdk.JsonSupport;
 import akka.javasdk.annotations.Acl;
 import akka.javasdk.annotations.http.Delete;
 import akka.javasdk.annotations.http.Get;
@@ -22,6 +52,9 @@ import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.AbstractHttpEndpoint;
 import akka.javasdk.http.HttpException;
 import akka.javasdk.http.HttpResponses;
+import akka.javasdk.timer.TimerScheduler;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import io.example.application.ParticipantSlotsView.SlotList;
 import io.example.domain.Participant.ParticipantType;
 import io.example.domain.Timeslot;
@@ -32,24 +65,77 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
     private final Logger log = LoggerFactory.getLogger(FlightEndpoint.class);
 
     private final ComponentClient componentClient;
-
-    public FlightEndpoint(ComponentClient componentClient) {
+    private final FlightConditionsClient conditionsClient;
+    private final GoogleWeatherService weatherService;
+    private final ConsistencyWait consistencyWait;
+    private final boolean slotsFromV1;
+    private final BookingMatcher matcher;
+
+    private static final ContentType NDJSON =
+            MediaTypes.applicationWithFixedCharset("x-ndjson", HttpCharsets.UTF_8).toContentType();
+    private static final ByteString NEWLINE = ByteString.fromString("\n");
+    private final TimerScheduler timerScheduler;
+    private final IdempotencyStore idempotencyStore;
+
+    public FlightEndpoint(ComponentClient componentClient, FlightConditionsClient conditionsClient,
+                          GoogleWeatherService weatherService, IdempotencyStore idempotencyStore,
+                          TimerScheduler timerScheduler, Config config) {
         this.componentClient = componentClient;
+        this.conditionsClient = conditionsClient;
+        this.weatherService = weatherService;
+        this.consistencyWait = new ConsistencyWait(config.getDuration("flight-endpoint.consistency-max-wait"));
+        this.slotsFromV1 = config.getString("flight-endpoint.slots-view").equals("v1");
+        this.matcher = new BookingMatcher(componentClient);
+        this.timerScheduler = timerScheduler;
+        this.idempotencyStore = idempotencyStore;
     }
 
+    // POST routes honour an Idempotency-Key header: a retry with the same key (and request) gets
+    // the answer to the original request instead of the work being repeated, see IdempotencyStore.
+    // Keys are scoped to the canonical slot ID, so both forms of a slot ID share them.
+
+    // Write routes answer with a ConsistencyToken in the X-Consistency-Token header. Passing it
+    // back on a read of ParticipantSlotsView (/slots, /schedule/.../stream and /export) makes that
+    // read wait until the view reflects the write; the streams start once it does. The token lists
+    // ParticipantSlotsView rows, so the routes backed by other projections (/utilization and
+    // /leaderboard on UtilizationView, /matches on SlotAvailabilityView) have nothing to check it
+    // against and ignore it. The remaining reads go to entities and always see the write.
+
+    // Slot IDs are "{airfield}:{yyyy-MM-dd-HH}", or a bare "{yyyy-MM-dd-HH}" for the default
+    // airfield, see SlotKey. Every route accepts both forms.
+
     // Creates a new booking. All three identified participants will
     // be considered booked for the given timeslot, if they are all
     // "available" at the time of booking.
     @Post("/bookings/{slotId}")
     public HttpResponse createBooking(String slotId, BookingRequest request) {
+        var canonicalId = canonicalSlotId(slotId);
+        return idempotent("bookings " + canonicalId, request, () -> createBookingOnce(canonicalId, request));
+    }
+
+    private HttpResponse createBookingOnce(String slotId, BookingRequest request) {
         // String studentId, String aircraftId, String instructorId, String bookingId
         // Implementation here
 
         // Check to see if slot provided is valid
         isSlotIdValid(slotId, true);
 
-        // For no availability we need to reject the request
-        var areParticipantsAvailable = areParticipantsStatus(slotId, request.studentId, request.aircraftId, request.instructorId, "AVAILABLE");
+        // Booking IDs are chosen by clients and index bookings service-wide, so one that is
+        // already in use in another slot is refused. The index is eventually consistent; the
+        // BookingIndexEntity itself refuses a clash that gets past this check.
+        var indexed = componentClient
+                .forKeyValueEntity(request.bookingId)
+                .method(BookingIndexEntity::getBooking)
+                .invoke();
+        if (indexed.isForOtherSlot(slotId)) {
+            log.warn("Booking creation failed for slot {}: booking id {} is used in slot {}", slotId, request.bookingId, indexed.slotId());
+            return HttpResponses.badRequest("Booking id " + request.bookingId + " is already used in another slot");
+        }
+
+        // For no availability we need to reject the request. Availability is read from the slot
+        // entity itself rather than the view, so a participant who has just marked themselves
+        // available can book straight away
+        var areParticipantsAvailable = areParticipantsAvailable(slotId, request.studentId, request.aircraftId, request.instructorId);
         if(!areParticipantsAvailable.studentState || !areParticipantsAvailable.aircraftState || !areParticipantsAvailable.instructorState) {
             StringBuilder unavailable = new StringBuilder("ERROR! Cannot book timeslot as following participants are unavailable: ");
             if (!areParticipantsAvailable.studentState) unavailable.append("Student ");
@@ -61,92 +147,387 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
             return HttpResponses.badRequest(message);
         }
 
-        var sessionId = UUID.randomUUID().toString();
-        var callToAgent = new callToAgent(slotId, "London");
+        // Availability is per slot, so also make sure nobody is booked in another slot at the same
+        // hour. The schedules are projected from the slot entities' events, so this catches
+        // conflicts with earlier bookings but not a concurrent booking at another airfield: two
+        // such requests can both pass.
+        var hour = SlotKey.parse(slotId).epochHour();
+        var conflicts = Stream.of(request.studentId, request.aircraftId, request.instructorId)
+                .filter(participantId -> isBookedAt(participantId, hour))
+                .toList();
+        if (!conflicts.isEmpty()) {
+            log.warn("Booking creation failed for slot {}: {} already booked at this hour", slotId, conflicts);
+            return HttpResponses.badRequest("ERROR! Cannot book timeslot as following participants are already booked at this time: "
+                    + String.join(" ", conflicts));
+        }
 
-        FlightConditionsAgent.ConditionsReport report = componentClient.forAgent()
-                .inSession(sessionId)
-                .method(FlightConditionsAgent::weatherReport)
-                .invoke(new FlightConditionsAgent.AgentCommand(callToAgent.timeSlotID, callToAgent.location));
+        var verdict = conditionsClient.check(slotId);
+        if (!verdict.isKnown()) {
+            log.warn("Booking creation failed for slot {}: flight conditions unknown", slotId);
+            return HttpResponse.create()
+                    .withStatus(StatusCodes.SERVICE_UNAVAILABLE)
+                    .withEntity("Booking creation failed: " + verdict.report().justification());
+        }
+        FlightConditionsAgent.ConditionsReport report = verdict.report();
 
         log.info("For dateTime slot {}, State of requirements is {}", report.timeSlotId(), report.meetsRequirements());
         log.info("LLM Justification: {}", report.justification());
 
         if (report.meetsRequirements()) {
             log.info("Creating booking for slot {}: {}", slotId, request);
-            componentClient
-                    .forEventSourcedEntity(slotId)
-                    .method(BookingSlotEntity::bookSlot)
-                    .invoke(new BookingSlotEntity.Command.BookReservation(
-                            request.studentId,
-                            request.aircraftId,
-                            request.instructorId,
-                            request.bookingId
-                    ));
-            return HttpResponses.created("Booking created successfully with Booking Id: "+ request.bookingId);
+            var issuedAt = Instant.now();
+            try {
+                componentClient
+                        .forEventSourcedEntity(slotId)
+                        .method(BookingSlotEntity::bookSlot)
+                        .invoke(new BookingSlotEntity.Command.BookReservation(
+                                request.studentId,
+                                request.aircraftId,
+                                request.instructorId,
+                                request.bookingId
+                        ));
+            } catch (CommandException e) {
+                // a concurrent booking took a participant since the availability check above
+                log.warn("Booking creation failed for slot {}: {}", slotId, e.getMessage());
+                return HttpResponses.badRequest("Booking creation failed: " + e.getMessage());
+            }
+            return HttpResponses.created("Booking created successfully with Booking Id: "+ request.bookingId)
+                    .addHeader(consistencyHeader(ConsistencyToken.of(issuedAt, slotId, "BOOKED",
+                            request.studentId, request.aircraftId, request.instructorId)));
         } else {
             log.warn("Booking creation failed for slot {} due to Weather Report: {}", slotId, report.justification());
             return HttpResponses.badRequest("Booking creation failed due to Weather Report: \nLLM Justification: " + report.justification());
         }
     }
 
-    // Cancels an existing booking. Note that both the slot
-    // ID and the booking ID are required.
+    // Cancels an existing booking. The slot ID is redundant since the booking
+    // index knows which slot a booking was made in, but if given it must match.
     @Delete("/bookings/{slotId}/{bookingId}")
     public HttpResponse cancelBooking(String slotId, String bookingId) {
+        return cancel(canonicalSlotId(slotId), bookingId);
+    }
+
+    // Cancels an existing booking knowing only its booking ID
+    @Delete("/bookings/{bookingId}")
+    public HttpResponse cancelBookingById(String bookingId) {
+        return cancel(null, bookingId);
+    }
+
+    private HttpResponse cancel(String expectedSlotId, String bookingId) {
         log.info("Attempting to cancel booking with Booking Id: {}", bookingId);
 
         try {
-            // get participants by booking id
-            var bookedParticipants = componentClient
-                    .forView()
-                    .method(ParticipantSlotsView::getsParticipantsByBookingIdAndStatus)
-                    .invoke(new ParticipantSlotsView.BookingStatusInput(bookingId, "BOOKED"));
+            // point lookup of the booking's slot and participants
+            var booking = componentClient
+                    .forKeyValueEntity(bookingId)
+                    .method(BookingIndexEntity::getBooking)
+                    .invoke();
+            if (booking.isEmpty() && expectedSlotId != null) {
+                // The index is updated from the slot's events and may not have caught up with a
+                // booking made moments ago, but the slot itself knows. Without a slot ID there is
+                // nowhere else to look, so a cancel right after booking can answer No Booking.
+                booking = bookingInSlot(expectedSlotId, bookingId);
+            }
 
-            if (bookedParticipants.slots().size() >= 3) {
-                // Add booking cancellation code
+            if (booking.isEmpty()) {
+                log.warn("Booking cancelling failed, no booking with id: {}", bookingId);
+                return HttpResponses.badRequest("No Booking with id: " + bookingId);
+            }
+            if (booking.isBooked() && (expectedSlotId == null || expectedSlotId.equals(booking.slotId()))) {
+                var issuedAt = Instant.now();
                 componentClient
-                        .forEventSourcedEntity(slotId)
+                        .forEventSourcedEntity(booking.slotId())
                         .method(BookingSlotEntity::cancelBooking)
                         .invoke(bookingId);
 
                 //TODO: Add code here to make the participants available again after booking cancelled?
-                return HttpResponses.ok();
+                return HttpResponses.ok()
+                        .addHeader(consistencyHeader(ConsistencyToken.of(issuedAt, booking.slotId(), "CANCELLED",
+                                booking.participants().stream().map(Participant::id).toArray(String[]::new))));
             } else {
                 log.warn("Booking cancelling failed for slot: {}", bookingId);
                 return HttpResponses.badRequest("No Booking with id: "+bookingId);
             }
         } catch (Exception e) {
+            log.warn("Booking {} could not be cancelled: {}", bookingId, e.getMessage());
             return HttpResponses.badRequest("Booking could not be cancelled");
         }
     }
 
+    // The booking as the slot entity has it, in the index's form
+    private BookingIndexEntity.State bookingInSlot(String slotId, String bookingId) {
+        var participants = componentClient
+                .forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::getSlot)
+                .invoke()
+                .findBooking(bookingId).stream()
+                .map(Timeslot.Booking::participant)
+                .toList();
+        return participants.isEmpty()
+                ? BookingIndexEntity.State.empty()
+                : new BookingIndexEntity.State(slotId, participants, "BOOKED");
+    }
+
     // Retrieves all slots in which a given participant has the supplied status.
     // Used to retrieve bookings and slots in which the participant is available
     @Get("/slots/{participantId}/{status}")
-    public SlotList slotsByStatus(String participantId, String status) {
+    public CompletionStage<SlotList> slotsByStatus(String participantId, String status) {
+        if (slotsFromV1) {
+            // served by the view as first deployed while ParticipantSlotsView catches up
+            return awaitConsistency(this::v1ViewShows).thenCompose(caughtUp -> componentClient
+                    .forView()
+                    .method(ParticipantSlotsViewV1::getSlotsByParticipantAndStatus)
+                    .invokeAsync(new ParticipantSlotsViewV1.ParticipantStatusInput(participantId, status.toUpperCase()))
+                    .thenApply(rows -> new SlotList(rows.slots().stream().map(ParticipantSlotsViewV1.SlotRow::toCurrent).toList())));
+        }
 
         // Add view query
-        return componentClient
+        return awaitConsistency(this::viewShows).thenCompose(caughtUp -> componentClient
                 .forView()
                 .method(ParticipantSlotsView::getSlotsByParticipantAndStatus)
-                .invoke(new ParticipantSlotsView.ParticipantStatusInput(participantId, status.toUpperCase()));
+                .invokeAsync(new ParticipantSlotsView.ParticipantStatusInput(participantId, status.toUpperCase())));
+    }
+
+    // Streams a participant's schedule as server-sent events: first the current
+    // slot rows, then each row as it changes, so clients don't need to poll
+    @Get("/schedule/{participantId}/stream")
+    public HttpResponse scheduleChanges(String participantId) {
+        var rows = afterConsistency(componentClient
+                .forView()
+                .stream(ParticipantSlotsView::streamSlotsByParticipant)
+                .source(participantId));
+        return HttpResponses.serverSentEvents(rows);
+    }
+
+    // Returns the flyable/not flyable verdict for every hour from one slot hour to another
+    // (inclusive, yyyy-MM-dd-HH) at an airfield. Evaluated against the same limits the agent
+    // uses, in one pass over the cached forecast rather than one agent call per hour.
+    @Get("/conditions/{airfield}/{fromHour}/{toHour}")
+    public HttpResponse conditionsCalendar(String airfield, String fromHour, String toHour) {
+        SlotKey from;
+        SlotKey to;
+        try {
+            from = SlotKey.parse(airfield + ":" + fromHour);
+            to = SlotKey.parse(airfield + ":" + toHour);
+        } catch (IllegalArgumentException e) {
+            throw HttpException.badRequest(e.getMessage());
+        }
+        if (to.epochHour() < from.epochHour()) {
+            throw HttpException.badRequest("The end of the range must not be before its start");
+        }
+
+        List<ForecastHour> forecast;
+        try {
+            forecast = weatherService.getForecastHours(conditionsClient.locationFor(from.airfield()));
+        } catch (GoogleWeatherService.ConditionsUnknownException e) {
+            log.warn("Conditions calendar unavailable for {}: {}", from.airfield(), e.getMessage());
+            return HttpResponse.create()
+                    .withStatus(StatusCodes.SERVICE_UNAVAILABLE)
+                    .withEntity("Flight conditions are currently unknown, weather services are unavailable");
+        }
+
+        var hours = forecast.stream()
+                .filter(hour -> {
+                    var epochHour = SlotKey.parse(hour.timeSlotId()).epochHour();
+                    return epochHour >= from.epochHour() && epochHour <= to.epochHour();
+                })
+                .map(hour -> new HourConditions(
+                        new SlotKey(from.airfield(), hour.timeSlotId()).entityId(),
+                        hour.meetsRequirements(),
+                        hour.isComplete(),
+                        hour.violations()))
+                .toList();
+        return HttpResponses.ok(new ConditionsCalendar(from.airfield(), hours));
+    }
+
+    // Puts a booking on the slot's waitlist. It is booked as soon as all three participants are
+    // available, under the same rules as POST /bookings, until the slot starts. The first attempt
+    // is made by the WaitlistRetrier straight after this request rather than in it, as it needs a
+    // flight conditions check, so the answer is always 202; GET /waitlist/{slotId} shows the
+    // bookings still waiting. Answers 400 once the slot has started.
+    @Post("/waitlist/{slotId}")
+    public HttpResponse joinWaitlist(String slotId, BookingRequest request) {
+        var canonicalId = canonicalSlotId(slotId);
+        return idempotent("waitlist " + canonicalId, request, () -> joinWaitlistOnce(canonicalId, request));
+    }
+
+    private HttpResponse joinWaitlistOnce(String slotId, BookingRequest request) {
+        isSlotIdValid(slotId, true);
+
+        try {
+            componentClient
+                    .forKeyValueEntity(slotId)
+                    .method(WaitlistEntity::join)
+                    .invoke(new WaitlistEntity.Intent(
+                            request.bookingId, request.studentId, request.aircraftId, request.instructorId));
+        } catch (CommandException e) {
+            log.warn("Booking {} not waitlisted for slot {}: {}", request.bookingId, slotId, e.getMessage());
+            return HttpResponses.badRequest("Booking could not be waitlisted: " + e.getMessage());
+        }
+        log.info("Waitlisted booking {} for slot {}", request.bookingId, slotId);
+
+        WaitlistRetrier.scheduleRetry(timerScheduler, componentClient, slotId, Duration.ZERO);
+        WaitlistRetrier.scheduleExpiry(timerScheduler, componentClient, slotId);
+        return HttpResponse.create()
+                .withStatus(StatusCodes.ACCEPTED)
+                .withEntity("Booking " + request.bookingId + " is on the waitlist and is booked once its participants are available");
+    }
+
+    @Delete("/waitlist/{slotId}/{bookingId}")
+    public HttpResponse leaveWaitlist(String slotId, String bookingId) {
+        slotId = canonicalSlotId(slotId);
+        componentClient
+                .forKeyValueEntity(slotId)
+                .method(WaitlistEntity::leave)
+                .invoke(bookingId);
+        return HttpResponses.ok();
+    }
+
+    @Get("/waitlist/{slotId}")
+    public WaitlistEntity.State getWaitlist(String slotId) {
+        slotId = canonicalSlotId(slotId);
+        return componentClient
+                .forKeyValueEntity(slotId)
+                .method(WaitlistEntity::getWaitlist)
+                .invoke();
+    }
+
+    // Exports every slot row between two hours (inclusive, yyyy-MM-dd-HH) at an airfield as
+    // newline-delimited JSON, optionally only rows with a given status (?status=booked). Rows are
+    // streamed from the view as the client reads them, so the export runs in constant memory
+    // whatever its size.
+    @Get("/export/{airfield}/{fromHour}/{toHour}")
+    public HttpResponse exportSlots(String airfield, String fromHour, String toHour) {
+        String fromSlotId;
+        String toSlotId;
+        try {
+            fromSlotId = SlotKey.parse(airfield + ":" + fromHour).entityId();
+            toSlotId = SlotKey.parse(airfield + ":" + toHour).entityId();
+        } catch (IllegalArgumentException e) {
+            throw HttpException.badRequest(e.getMessage());
+        }
+
+        var status = requestContext().queryParams().getString("status").map(String::toUpperCase);
+        Source<ParticipantSlotsView.SlotRow, NotUsed> query = status.isPresent()
+                ? componentClient
+                        .forView()
+                        .stream(ParticipantSlotsView::streamSlotsInRangeWithStatus)
+                        .source(new ParticipantSlotsView.SlotRangeStatusInput(fromSlotId, toSlotId, status.get()))
+                : componentClient
+                        .forView()
+                        .stream(ParticipantSlotsView::streamSlotsInRange)
+                        .source(new ParticipantSlotsView.SlotRangeInput(fromSlotId, toSlotId));
+
+        var lines = afterConsistency(query).map(row -> ByteString.fromArray(JsonSupport.getObjectMapper().writeValueAsBytes(row))
+                .concat(NEWLINE));
+        return HttpResponse.create()
+                .withEntity(HttpEntities.create(NDJSON, lines));
+    }
+
+    // A participant's booked and available hours, cancellations and utilization between two
+    // days (inclusive, yyyy-MM-dd, UTC), in total and per day
+    @Get("/utilization/{participantId}/{fromDay}/{toDay}")
+    public UtilizationReport utilization(String participantId, String fromDay, String toDay) {
+        validateDayRange(fromDay, toDay);
+        var days = componentClient
+                .forView()
+                .method(UtilizationView::getParticipantUtilization)
+                .invoke(new UtilizationView.ParticipantDaysInput(participantId, fromDay, toDay))
+                .days();
+        return UtilizationReport.of(participantId, days);
+    }
+
+    // The participants of a type (student, instructor or aircraft) with the most booked hours on
+    // a day (yyyy-MM-dd, UTC), busiest first. Optional limit query parameter, default 10.
+    @Get("/leaderboard/{participantType}/{day}")
+    public UtilizationView.UtilizationList leaderboard(String participantType, String day) {
+        ParticipantType type;
+        int limit;
+        try {
+            type = ParticipantType.valueOf(participantType.trim().toUpperCase());
+            limit = requestContext().queryParams().getString("limit").map(Integer::parseInt).orElse(10);
+        } catch (IllegalArgumentException e) {
+            throw HttpException.badRequest("Expected a participant type of student, instructor or aircraft and a numeric limit");
+        }
+        if (limit < 1) {
+            throw HttpException.badRequest("limit must be at least 1");
+        }
+        validateDayRange(day, day);
+        return componentClient
+                .forView()
+                .method(UtilizationView::getLeaderboard)
+                .invoke(new UtilizationView.LeaderboardInput(type.toString(), day, limit));
     }
 
-    // Returns the internal availability state for a given slot
+    // Suggests bookable (slot, instructor, aircraft) trios for a student between two hours
+    // (inclusive, yyyy-MM-dd-HH) at any airfield. Optional query parameters: instructorId and
+    // aircraftId rank trios with that instructor/aircraft first, limit caps the result (default 20).
+    @Get("/matches/{studentId}/{fromHour}/{toHour}")
+    public MatchList matches(String studentId, String fromHour, String toHour) {
+        SlotKey from;
+        SlotKey to;
+        try {
+            from = SlotKey.parse(fromHour);
+            to = SlotKey.parse(toHour);
+        } catch (IllegalArgumentException e) {
+            throw HttpException.badRequest(e.getMessage());
+        }
+        if (to.epochHour() < from.epochHour()) {
+            throw HttpException.badRequest("The end of the range must not be before its start");
+        }
+
+        var params = requestContext().queryParams();
+        int limit;
+        try {
+            limit = params.getString("limit").map(Integer::parseInt).orElse(20);
+        } catch (NumberFormatException e) {
+            throw HttpException.badRequest("limit must be a number");
+        }
+        if (limit < 1) {
+            throw HttpException.badRequest("limit must be at least 1");
+        }
+
+        var candidates = matcher.match(new BookingMatcher.MatchRequest(
+                studentId,
+                from.epochHour(),
+                to.epochHour(),
+                params.getString("instructorId").orElse(null),
+                params.getString("aircraftId").orElse(null),
+                limit));
+        return new MatchList(candidates);
+    }
+
+    // Returns the internal availability state for a given slot, with an ETag that is the slot
+    // entity's event sequence number. When If-None-Match names the current ETag the answer is
+    // 304 Not Modified, from a version-only read of the entity.
     @Get("/availability/{slotId}")
-    public Timeslot getSlot(String slotId) {
+    public HttpResponse getSlot(String slotId) {
+        slotId = canonicalSlotId(slotId);
 
         // Add entity state request
         try {
-            return componentClient
+            var ifNoneMatch = requestContext().requestHeader("If-None-Match").map(HttpHeader::value);
+            if (ifNoneMatch.isPresent()) {
+                var version = componentClient
+                        .forEventSourcedEntity(slotId)
+                        .method(BookingSlotEntity::getVersion)
+                        .invoke();
+                if (etagMatches(ifNoneMatch.get(), etag(version))) {
+                    return HttpResponse.create()
+                            .withStatus(StatusCodes.NOT_MODIFIED)
+                            .addHeader(RawHeader.create("ETag", etag(version)));
+                }
+            }
+            var versioned = componentClient
                     .forEventSourcedEntity(slotId)
-                    .method(BookingSlotEntity::getSlot)
+                    .method(BookingSlotEntity::getVersionedSlot)
                     .invoke();
+            return HttpResponses.ok(versioned.slot())
+                    .addHeader(RawHeader.create("ETag", etag(versioned.version())));
         } catch (Exception e) {
             log.warn("No timeslot with id: {}", slotId);
-            return new Timeslot(Collections.emptySet(),
-                    Collections.emptySet());
+            return HttpResponses.ok(new Timeslot(Collections.emptySet(),
+                    Collections.emptySet()));
         }
     }
 
@@ -154,6 +535,11 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
     // within the indicated time slot
     @Post("/availability/{slotId}")
     public HttpResponse markAvailable(String slotId, AvailabilityRequest request) {
+        var canonicalId = canonicalSlotId(slotId);
+        return idempotent("availability " + canonicalId, request, () -> markAvailableOnce(canonicalId, request));
+    }
+
+    private HttpResponse markAvailableOnce(String slotId, AvailabilityRequest request) {
         ParticipantType participantType;
 
         // Check to see if slot provided is valid
@@ -166,22 +552,19 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
             throw HttpException.badRequest("invalid participant type");
         }
 
-        // checking that a participant is not already booked on the chosen slot
-        var participantBookedSlots = componentClient
-                .forView()
-                .method(ParticipantSlotsView::getSlotsByParticipantAndStatus)
-                .invoke(new ParticipantSlotsView.ParticipantStatusInput(request.participantId, "BOOKED"));
-
-        if (participantBookedSlots.slots().stream().noneMatch(slotRow -> slotRow.slotId().equals(slotId))) {
+        // checking that a participant is not already booked at the chosen hour, on this or any other slot
+        if (!isBookedAt(request.participantId, slotId)) {
             log.info("Marking timeslot available for entity {}", slotId);
+            var issuedAt = Instant.now();
             componentClient
                     .forEventSourcedEntity(slotId)
                     .method(BookingSlotEntity::markSlotAvailable)
                     .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(new Participant(request.participantId, participantType)));
 
-            return HttpResponses.ok();
+            return HttpResponses.ok()
+                    .addHeader(consistencyHeader(ConsistencyToken.of(issuedAt, slotId, "AVAILABLE", request.participantId)));
         } else  {
-            throw HttpException.badRequest("Participant: "+request.participantId+" is already booked on to this time slot");
+            throw HttpException.badRequest("Participant: "+request.participantId+" is already booked at this time");
         }
     }
 
@@ -189,6 +572,7 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
     @Delete("/availability/{slotId}")
     public HttpResponse unmarkAvailable(String slotId, AvailabilityRequest request) {
         ParticipantType participantType;
+        slotId = canonicalSlotId(slotId);
 
         // Check to see if slot provided is valid
         isSlotIdValid(slotId, false);
@@ -200,19 +584,17 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
             throw HttpException.badRequest("invalid participant type");
         }
 
-        // checking that a participant is not already booked on the chosen slot
-        var participantBookedSlots = componentClient
-                .forView()
-                .method(ParticipantSlotsView::getSlotsByParticipantAndStatus)
-                .invoke(new ParticipantSlotsView.ParticipantStatusInput(request.participantId, "BOOKED"));
-
-        if (participantBookedSlots.slots().stream().noneMatch(slotRow -> slotRow.slotId().equals(slotId))) {
+        // checking that a participant is not already booked on the chosen slot. A booking at
+        // another airfield at the same hour doesn't stop them withdrawing their availability here.
+        if (!isBookedInSlot(request.participantId, slotId)) {
+            var issuedAt = Instant.now();
             componentClient
                     .forEventSourcedEntity(slotId)
                     .method(BookingSlotEntity::unmarkSlotAvailable)
                     .invoke(new BookingSlotEntity.Command.UnmarkSlotAvailable(new Participant(request.participantId, participantType)));
 
-            return HttpResponses.ok();
+            return HttpResponses.ok()
+                    .addHeader(consistencyHeader(ConsistencyToken.of(issuedAt, slotId, "UNAVAILABLE", request.participantId)));
         } else {
             throw HttpException.badRequest("Participant: "+request.participantId+" is already booked on to this time slot, cannot mark unavailable.");
         }
@@ -230,29 +612,163 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
     // Public record to store state of participant status
     public record ParticipantIsState(Boolean studentState, Boolean aircraftState, Boolean instructorState) {}
 
-    public record callToAgent(String timeSlotID, String location) {}
+    // Public API representation of the conditions calendar, hours outside the forecast are left out
+    public record ConditionsCalendar(String airfield, List<HourConditions> hours) {
+    }
+
+    // known is false when the forecast left out a value the verdict depends on; such an hour is
+    // not flyable and its reasons say which values are unknown
+    public record HourConditions(String slotId, boolean flyable, boolean known, List<String> reasons) {
+    }
+
+    // Totals over the requested days, and the days themselves (days without activity are left out)
+    public record UtilizationReport(String participantId, int bookedHours, int availableHours, int cancellations,
+                                    double utilization, List<UtilizationView.UtilizationRow> days) {
+
+        // Totals over the days, utilization being the share of booked hours in booked plus available
+        public static UtilizationReport of(String participantId, List<UtilizationView.UtilizationRow> days) {
+            int booked = days.stream().mapToInt(UtilizationView.UtilizationRow::bookedHours).sum();
+            int available = days.stream().mapToInt(UtilizationView.UtilizationRow::availableHours).sum();
+            int cancellations = days.stream().mapToInt(UtilizationView.UtilizationRow::cancellations).sum();
+            double utilization = booked + available == 0 ? 0 : (double) booked / (booked + available);
+            return new UtilizationReport(participantId, booked, available, cancellations, utilization, days);
+        }
+    }
+
+    // Best match first, a booking for a candidate goes to POST /bookings/{slotId}
+    public record MatchList(List<BookingMatcher.Candidate> candidates) {
+    }
 
     //Public helper function to check which participants are available for slot
-    public ParticipantIsState areParticipantsStatus(String slotId, String studentId, String aircraftId, String instructorId, String status) {
-        var studentSlotRow = componentClient.forView()
-                .method(ParticipantSlotsView::getSlotsByParticipant)
-                .invoke(studentId);
-        var aircraftSlotRow = componentClient.forView()
-                .method(ParticipantSlotsView::getSlotsByParticipant)
-                .invoke(aircraftId);
-        var instructorSlotRow = componentClient.forView()
-                .method(ParticipantSlotsView::getSlotsByParticipant)
-                .invoke(instructorId);
-
-        return new ParticipantIsState(studentSlotRow.slots()
-                .stream()
-                .anyMatch(slotRow -> status.equals(slotRow.status()) && slotRow.slotId().equals(slotId)),
-                aircraftSlotRow.slots()
-                .stream()
-                .anyMatch(slotRow -> status.equals(slotRow.status()) && slotRow.slotId().equals(slotId)),
-                instructorSlotRow.slots()
+    public ParticipantIsState areParticipantsAvailable(String slotId, String studentId, String aircraftId, String instructorId) {
+        var timeslot = componentClient
+                .forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::getSlot)
+                .invoke();
+
+        return new ParticipantIsState(
+                timeslot.isWaiting(studentId, ParticipantType.STUDENT),
+                timeslot.isWaiting(aircraftId, ParticipantType.AIRCRAFT),
+                timeslot.isWaiting(instructorId, ParticipantType.INSTRUCTOR));
+    }
+
+    private HttpResponse idempotent(String operation, Object request, Supplier<HttpResponse> handler) {
+        var key = requestContext().requestHeader(IdempotencyStore.HEADER).map(HttpHeader::value);
+        if (key.isEmpty()) return handler.get();
+        return idempotencyStore.execute(operation + " " + key.get(), request, handler);
+    }
+
+    private static void validateDayRange(String fromDay, String toDay) {
+        try {
+            if (LocalDate.parse(toDay).isBefore(LocalDate.parse(fromDay))) {
+                throw HttpException.badRequest("The end of the range must not be before its start");
+            }
+        } catch (DateTimeParseException e) {
+            throw HttpException.badRequest("Invalid day, expected yyyy-MM-dd: " + e.getParsedString());
+        }
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-None-Match holds "*" or a comma separated list of (possibly weak) entity tags
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            var tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private HttpHeader consistencyHeader(ConsistencyToken token) {
+        return RawHeader.create(ConsistencyToken.HEADER, token.encode());
+    }
+
+    // If the request carries a consistency token, completes once the view shows every row the
+    // token expects, or a later state of it, or once consistency-max-wait is up. In the latter
+    // case the read answers with whatever the view has, same as without a token.
+    private CompletionStage<Boolean> awaitConsistency(
+            BiFunction<Instant, ConsistencyToken.Expectation, CompletionStage<Boolean>> viewShows) {
+        var header = requestContext().requestHeader(ConsistencyToken.HEADER);
+        if (header.isEmpty()) return CompletableFuture.completedFuture(true);
+
+        ConsistencyToken token;
+        try {
+            token = ConsistencyToken.decode(header.get().value());
+        } catch (IllegalArgumentException e) {
+            throw HttpException.badRequest("Invalid " + ConsistencyToken.HEADER + " header");
+        }
+        return consistencyWait.await(token, expected -> viewShows.apply(token.issuedAt(), expected))
+                .thenApply(caughtUp -> {
+                    if (!caughtUp) {
+                        log.warn("View has not caught up with {} after {}", token.expectations(), consistencyWait.maxWait());
+                    }
+                    return caughtUp;
+                });
+    }
+
+    // The stream, started once awaitConsistency completes
+    private <T> Source<T, NotUsed> afterConsistency(Source<T, NotUsed> stream) {
+        return Source.completionStageSource(awaitConsistency(this::viewShows).thenApply(caughtUp -> stream))
+                .mapMaterializedValue(ignored -> NotUsed.getInstance());
+    }
+
+    // The row shows the write once it has the expected status, or once it has been updated by an
+    // event from the write or after it. The latter keeps a token good after the row moves on (a
+    // booking cancelled straight after it was made).
+    //
+    // Only that second check compares clocks of different instances: issuedAt is taken here and
+    // updatedAt by the instance that persisted the event. If that instance's clock is behind, a
+    // row that has moved on is not recognised and the read waits out consistency-max-wait. If it
+    // is ahead by some skew, an update made within that skew before the write is taken for the
+    // write, so the read can be stale by at most that much. With synchronised clocks (NTP keeps
+    // them within milliseconds) neither matters next to the view's own lag.
+    private CompletionStage<Boolean> viewShows(Instant issuedAt, ConsistencyToken.Expectation expected) {
+        return componentClient
+                .forView()
+                .method(ParticipantSlotsView::getSlotRow)
+                .invokeAsync(new ParticipantSlotsView.SlotParticipantInput(expected.slotId(), expected.participantId()))
+                .thenApply(rows -> rows.slots()
+                        .stream()
+                        .anyMatch(row -> expected.status().equals(row.status())
+                                || (row.updatedAt() != null && !row.updatedAt().isBefore(issuedAt))));
+    }
+
+    // The same for ParticipantSlotsViewV1, which has no updatedAt column and no single-row query,
+    // so a row only shows the write once it has the expected status
+    private CompletionStage<Boolean> v1ViewShows(Instant issuedAt, ConsistencyToken.Expectation expected) {
+        return componentClient
+                .forView()
+                .method(ParticipantSlotsViewV1::getSlotsByParticipant)
+                .invokeAsync(expected.participantId())
+                .thenApply(rows -> rows.slots()
+                        .stream()
+                        .anyMatch(row -> row.slotId().equals(expected.slotId()) && expected.status().equals(row.status())));
+    }
+
+    //Public helper function to check whether a participant is booked in the given slot
+    public boolean isBookedInSlot(String participantId, String slotId) {
+        return componentClient
+                .forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::getSlot)
+                .invoke()
+                .bookings()
                 .stream()
-                .anyMatch(slotRow -> status.equals(slotRow.status()) && slotRow.slotId().equals(slotId)));
+                .anyMatch(booking -> booking.participant().id().equals(participantId));
+    }
+
+    //Public helper function to check whether a participant is booked at the hour of a slot, at any airfield
+    public boolean isBookedAt(String participantId, String slotId) {
+        return isBookedAt(participantId, SlotKey.parse(slotId).epochHour());
+    }
+
+    private boolean isBookedAt(String participantId, long epochHour) {
+        return componentClient
+                .forKeyValueEntity(participantId)
+                .method(ParticipantScheduleEntity::isBookedAt)
+                .invoke(epochHour);
     }
 
     //Public helper function to check whether a slotId is valid
@@ -267,8 +783,16 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
     }
 
     public LocalDateTime getBookingStartTime(String slotId) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
-        return LocalDateTime.parse(slotId, formatter);
+        return SlotKey.parse(slotId).startTime();
+    }
+
+    //Public helper function to turn a slot ID from the request into the booking slot entity ID
+    public String canonicalSlotId(String slotId) {
+        try {
+            return SlotKey.parse(slotId).entityId();
+        } catch (IllegalArgumentException e) {
+            throw HttpException.badRequest(e.getMessage());
+        }
     }
 
 }
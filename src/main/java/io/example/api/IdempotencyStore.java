@@ -0,0 +1,127 @@
+package io.example.api;
+
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCodes;
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Results of write requests that carried an Idempotency-Key, so a client retrying after a
+// timeout gets the original answer instead of the work being done again. A retry that arrives
+// while the original is still running waits for it and shares its response.
+//
+// Held in memory on this service instance (a Bootstrap singleton), bounded to max-entries and
+// kept for ttl. Only successful (2xx) responses are kept. Any other answer, whether returned
+// (400, 503) or thrown (an HttpException or any other failure), made no change worth replaying,
+// so a retry runs the request again. A retry that joined the original while it was running
+// still shares its answer, whatever that was, if it comes within join-timeout; otherwise it is
+// answered 409 Conflict and can try again later. Requests still running are never evicted, so
+// the store can briefly hold more than max-entries while that many are in flight.
+//
+// The store is per instance: a retry that the load balancer sends to another instance, or that
+// arrives after a restart, is not recognised and runs again. What keeps such a retry from
+// booking twice is the entity, which treats a booking ID it already holds as done (see
+// BookingSlotEntity.bookSlot); this store only saves the repeated work and answers consistently.
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Duration joinTimeout;
+    // insertion order, so the oldest entries are first to go
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    private record Entry(Object request, CompletableFuture<HttpResponse> response, Instant createdAt) {
+    }
+
+    public IdempotencyStore(Config settings) {
+        this.ttl = settings.getDuration("ttl");
+        this.maxEntries = settings.getInt("max-entries");
+        this.joinTimeout = settings.getDuration("join-timeout");
+    }
+
+    // key identifies the operation and the client's idempotency key, request is compared with
+    // the original request made under the same key
+    public HttpResponse execute(String key, Object request, Supplier<HttpResponse> handler) {
+        var pending = new CompletableFuture<HttpResponse>();
+        Entry existing;
+        synchronized (entries) {
+            evictExpired(Instant.now());
+            existing = entries.get(key);
+            if (existing == null) {
+                entries.put(key, new Entry(request, pending, Instant.now()));
+                evictOldestCompleted();
+            }
+        }
+
+        if (existing != null) {
+            if (!existing.request().equals(request)) {
+                return HttpResponse.create()
+                        .withStatus(StatusCodes.UNPROCESSABLE_ENTITY)
+                        .withEntity("Idempotency-Key was already used for a different request");
+            }
+            try {
+                return existing.response().get(joinTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return HttpResponse.create()
+                        .withStatus(StatusCodes.CONFLICT)
+                        .withEntity("A request with this Idempotency-Key is still in progress, retry later");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the original request", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        try {
+            var response = handler.get();
+            if (!response.status().isSuccess()) {
+                forget(key, pending);
+            }
+            pending.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            forget(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void forget(String key, CompletableFuture<HttpResponse> pending) {
+        synchronized (entries) {
+            var entry = entries.get(key);
+            if (entry != null && entry.response() == pending) entries.remove(key);
+        }
+    }
+
+    // Beyond max-entries, drops the oldest entries whose requests have completed
+    private void evictOldestCompleted() {
+        var oldestFirst = entries.values().iterator();
+        while (entries.size() > maxEntries && oldestFirst.hasNext()) {
+            if (oldestFirst.next().response().isDone()) oldestFirst.remove();
+        }
+    }
+
+    private void evictExpired(Instant now) {
+        Iterator<Map.Entry<String, Entry>> oldestFirst = entries.entrySet().iterator();
+        while (oldestFirst.hasNext()) {
+            var entry = oldestFirst.next().getValue();
+            if (entry.createdAt().plus(ttl).isAfter(now)) break;
+            // an expired request that is still running keeps its place until it completes
+            if (!entry.response().isDone()) break;
+            oldestFirst.remove();
+        }
+    }
+}
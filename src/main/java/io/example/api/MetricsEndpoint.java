@@ -0,0 +1,45 @@
+package io.example.api;
+
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import akka.javasdk.http.HttpException;
+import io.example.application.AgentMetrics;
+import io.example.application.ViewProjectionMetrics;
+
+import java.util.List;
+
+// Operational counters for this service instance. Only reachable from other services.
+@Acl(allow = @Acl.Matcher(service = "*"))
+@HttpEndpoint("/metrics")
+public class MetricsEndpoint extends AbstractHttpEndpoint {
+
+    private final AgentMetrics agentMetrics;
+
+    public MetricsEndpoint(AgentMetrics agentMetrics) {
+        this.agentMetrics = agentMetrics;
+    }
+
+    // Session usage of the flight conditions agent: calls, distinct sessions, and how many
+    // calls (and roughly how many characters) were written to session memory
+    @Get("/agent")
+    public AgentMetrics.Snapshot agent() {
+        return agentMetrics.snapshot();
+    }
+
+    // Projection progress of every tracked view: events applied, events/sec over the last few
+    // seconds and how long after being persisted its events are applied. Watch this while a view
+    // is rebuilt after a schema or query change.
+    @Get("/views")
+    public List<ViewProjectionMetrics.Snapshot> views() {
+        return ViewProjectionMetrics.snapshots();
+    }
+
+    // The same for one view, by its component ID
+    @Get("/views/{componentId}")
+    public ViewProjectionMetrics.Snapshot view(String componentId) {
+        return ViewProjectionMetrics.snapshot(componentId)
+                .orElseThrow(HttpException::notFound);
+    }
+}
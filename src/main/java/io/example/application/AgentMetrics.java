@@ -0,0 +1,89 @@
+package io.example.application;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for the FlightConditionsAgent calls made by this service instance, exposed by the
+// MetricsEndpoint. Tracks how many sessions the verdict path uses and roughly how much it
+// writes to session memory, which should stay at zero in the default stateless mode, and the
+// tokens and latency per call broken down by model.
+//
+// Token counts are estimates (about four characters per token) from the prompt, tool output
+// and reply sizes, since the SDK does not hand the provider's usage figures to the caller.
+public class AgentMetrics {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder persistingCalls = new LongAdder();
+    private final LongAdder approxSessionBytes = new LongAdder();
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private final Map<String, ModelCounters> models = new ConcurrentHashMap<>();
+
+    public record Snapshot(long agentCalls, long sessionsUsed, long persistingCalls, long approxSessionBytes,
+                           List<ModelUsage> models) {
+    }
+
+    public record ModelUsage(String model, long calls, long estimatedInputTokens, long estimatedOutputTokens,
+                             long averageLatencyMillis, long maxLatencyMillis) {
+    }
+
+    private static class ModelCounters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder inputChars = new LongAdder();
+        final LongAdder outputChars = new LongAdder();
+        final LongAdder latencyMillis = new LongAdder();
+        final LongAccumulator maxLatencyMillis = new LongAccumulator(Math::max, 0L);
+    }
+
+    // persistedChars is the size of the messages written to session memory by the call
+    public void recordCall(String sessionId, boolean persisted, long persistedChars) {
+        calls.increment();
+        sessions.add(sessionId);
+        if (persisted) {
+            persistingCalls.increment();
+            approxSessionBytes.add(persistedChars);
+        }
+    }
+
+    // Text sent to the model: system and user messages, and tool output
+    public void recordPrompt(String model, long chars) {
+        counters(model).inputChars.add(chars);
+    }
+
+    // A completed call, from the caller's point of view
+    public void recordCompletion(String model, long outputChars, long latencyMillis) {
+        var counters = counters(model);
+        counters.calls.increment();
+        counters.outputChars.add(outputChars);
+        counters.latencyMillis.add(latencyMillis);
+        counters.maxLatencyMillis.accumulate(latencyMillis);
+    }
+
+    public Snapshot snapshot() {
+        var usage = models.entrySet().stream()
+                .map(e -> {
+                    var c = e.getValue();
+                    long modelCalls = c.calls.sum();
+                    return new ModelUsage(
+                            e.getKey(),
+                            modelCalls,
+                            c.inputChars.sum() / CHARS_PER_TOKEN,
+                            c.outputChars.sum() / CHARS_PER_TOKEN,
+                            modelCalls == 0 ? 0 : c.latencyMillis.sum() / modelCalls,
+                            c.maxLatencyMillis.get());
+                })
+                .sorted(Comparator.comparing(ModelUsage::model))
+                .toList();
+        return new Snapshot(calls.sum(), sessions.size(), persistingCalls.sum(), approxSessionBytes.sum(), usage);
+    }
+
+    private ModelCounters counters(String model) {
+        return models.computeIfAbsent(model, m -> new ModelCounters());
+    }
+}
@@ -0,0 +1,68 @@
+package io.example.application;
+
+import akka.javasdk.CommandException;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Maintains the BookingIndexEntity from booking slot events, keyed by booking ID. A booking
+// whose ID is already indexed for another slot is logged and skipped: retrying can't fix it.
+@Component(id = "booking-index-consumer")
+@Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+public class BookingIndexConsumer extends Consumer {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingIndexConsumer.class);
+
+    private final ComponentClient client;
+
+    public BookingIndexConsumer(ComponentClient client) {
+        this.client = client;
+    }
+
+    public Effect onEvent(BookingEvent event) {
+        return switch (event) {
+            // per-participant events from journals written before BookingConfirmed
+            case BookingEvent.ParticipantBooked e -> {
+                index(e.bookingId(), () -> client.forKeyValueEntity(e.bookingId())
+                        .method(BookingIndexEntity::addParticipant)
+                        .invoke(new BookingIndexEntity.Commands.AddParticipant(
+                                e.slotId(),
+                                new Participant(e.participantId(), e.participantType())
+                        )));
+                yield effects().done();
+            }
+            case BookingEvent.ParticipantCanceled e -> {
+                client.forKeyValueEntity(e.bookingId())
+                        .method(BookingIndexEntity::cancel)
+                        .invoke(new BookingIndexEntity.Commands.Cancel(e.slotId()));
+                yield effects().done();
+            }
+            case BookingEvent.BookingConfirmed e -> {
+                index(e.bookingId(), () -> client.forKeyValueEntity(e.bookingId())
+                        .method(BookingIndexEntity::record)
+                        .invoke(new BookingIndexEntity.Commands.Record(e.slotId(), e.participants())));
+                yield effects().done();
+            }
+            case BookingEvent.BookingCanceled e -> {
+                client.forKeyValueEntity(e.bookingId())
+                        .method(BookingIndexEntity::cancel)
+                        .invoke(new BookingIndexEntity.Commands.Cancel(e.slotId()));
+                yield effects().done();
+            }
+            default -> effects().ignore();
+        };
+    }
+
+    private void index(String bookingId, Runnable call) {
+        try {
+            call.run();
+        } catch (CommandException e) {
+            log.warn("Booking {} not indexed: {}", bookingId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import io.example.domain.Participant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Index from a booking ID to the slot it was made in and its participants, so a booking can
+// be found with a point lookup instead of a view query. Keyed by booking ID and maintained by
+// the BookingIndexConsumer, so a booking shows up here shortly after it was made, not at once.
+//
+// Booking IDs come from clients. An ID belongs to the slot it was first indexed for, and the
+// same ID used in another slot is rejected instead of pointing the index at the other slot.
+@Component(id = "booking-index")
+public class BookingIndexEntity extends KeyValueEntity<BookingIndexEntity.State> {
+
+    public record State(String slotId, List<Participant> participants, String status) {
+        public static State empty() {
+            return new State(null, List.of(), "");
+        }
+
+        public boolean isEmpty() {
+            return slotId == null;
+        }
+
+        public boolean isForOtherSlot(String otherSlotId) {
+            return !isEmpty() && !slotId.equals(otherSlotId);
+        }
+
+        public boolean isBooked() {
+            return "BOOKED".equals(status) && participants.size() >= 3;
+        }
+
+        public State withParticipant(String slotId, Participant participant) {
+            var all = new ArrayList<>(participants);
+            if (!all.contains(participant)) all.add(participant);
+            return new State(slotId, all, "BOOKED");
+        }
+
+        public State withStatus(String status) {
+            return new State(slotId, participants, status);
+        }
+    }
+
+    public Effect<Done> addParticipant(Commands.AddParticipant cmd) {
+        if (currentState().isForOtherSlot(cmd.slotId())) {
+            return alreadyIndexed(cmd.slotId());
+        }
+        return effects()
+                .updateState(currentState().withParticipant(cmd.slotId(), cmd.participant()))
+                .thenReply(Done.getInstance());
+    }
+
+    public Effect<Done> record(Commands.Record cmd) {
+        if (currentState().isForOtherSlot(cmd.slotId())) {
+            return alreadyIndexed(cmd.slotId());
+        }
+        return effects()
+                .updateState(new State(cmd.slotId(), List.copyOf(cmd.participants()), "BOOKED"))
+                .thenReply(Done.getInstance());
+    }
+
+    // Only cancels the booking indexed for the given slot, not one with the same ID elsewhere
+    public Effect<Done> cancel(Commands.Cancel cmd) {
+        if (currentState().isEmpty() || currentState().isForOtherSlot(cmd.slotId())) {
+            return effects().reply(Done.getInstance());
+        }
+        return effects()
+                .updateState(currentState().withStatus("CANCELLED"))
+                .thenReply(Done.getInstance());
+    }
+
+    private Effect<Done> alreadyIndexed(String slotId) {
+        return effects().error("Booking " + commandContext().entityId() + " is already indexed for slot "
+                + currentState().slotId() + ", not " + slotId);
+    }
+
+    // The empty state (no slot ID) when there is no booking with this ID, or when the
+    // BookingIndexConsumer hasn't got to it yet
+    public Effect<State> getBooking() {
+        return effects().reply(currentState());
+    }
+
+    @Override
+    public State emptyState() {
+        return State.empty();
+    }
+
+    public sealed interface Commands {
+        record AddParticipant(String slotId, Participant participant) implements Commands {
+        }
+
+        record Record(String slotId, List<Participant> participants) implements Commands {
+        }
+
+        record Cancel(String slotId) implements Commands {
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import io.example.application.SlotAvailabilityView.AvailabilityRow;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiPredicate;
+
+// Suggests bookable (slot, instructor, aircraft) trios for a student over a time range, from
+// the SlotAvailabilityView. Trios with the preferred instructor and/or aircraft rank first
+// (the instructor counting for more), then earlier slots. The view only knows who is available
+// in each slot, so participants already booked at that hour (at any airfield) are left out:
+// the booked hours of every participant in the range are read with one ParticipantScheduleEntity
+// call per participant, all in flight at once.
+public class BookingMatcher {
+
+    private final ComponentClient componentClient;
+
+    public BookingMatcher(ComponentClient componentClient) {
+        this.componentClient = componentClient;
+    }
+
+    public record MatchRequest(String studentId, long fromHour, long toHour,
+                               String preferredInstructorId, String preferredAircraftId, int limit) {
+    }
+
+    public record Candidate(String slotId, String instructorId, String aircraftId, int score) {
+    }
+
+    public List<Candidate> match(MatchRequest request) {
+        var slots = componentClient
+                .forView()
+                .method(SlotAvailabilityView::getStudentSlots)
+                .invoke(new SlotAvailabilityView.StudentRangeInput(request.studentId(), request.fromHour(), request.toHour()))
+                .slots();
+        var booked = bookedHours(slots, request);
+        return rank(slots, request, (participantId, epochHour) ->
+                booked.getOrDefault(participantId, Set.of()).contains(epochHour));
+    }
+
+    // Booked hours within the request's range per participant appearing in the slots
+    private Map<String, Set<Long>> bookedHours(List<AvailabilityRow> slots, MatchRequest request) {
+        var participants = new LinkedHashSet<String>();
+        participants.add(request.studentId());
+        for (AvailabilityRow slot : slots) {
+            participants.addAll(slot.instructors());
+            participants.addAll(slot.aircraft());
+        }
+        // the range is inclusive, the entity takes [fromHour, toHour)
+        var range = new ParticipantScheduleEntity.HourRange(request.fromHour(), request.toHour() + 1);
+        var lookups = new HashMap<String, CompletableFuture<List<Long>>>();
+        for (String participantId : participants) {
+            lookups.put(participantId, componentClient
+                    .forKeyValueEntity(participantId)
+                    .method(ParticipantScheduleEntity::bookedHoursWithin)
+                    .invokeAsync(range)
+                    .toCompletableFuture());
+        }
+        CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new)).join();
+        var booked = new HashMap<String, Set<Long>>();
+        lookups.forEach((participantId, hours) -> booked.put(participantId, new HashSet<>(hours.join())));
+        return booked;
+    }
+
+    // bookedAt tells whether a participant is already booked at the given epoch hour
+    static List<Candidate> rank(List<AvailabilityRow> slots, MatchRequest request,
+                                BiPredicate<String, Long> bookedAt) {
+        var candidates = new ArrayList<Candidate>();
+        var hourOfSlot = new HashMap<String, Long>();
+        for (AvailabilityRow slot : slots) {
+            long hour = slot.epochHour();
+            if (bookedAt.test(request.studentId(), hour)) continue;
+            hourOfSlot.put(slot.slotId(), hour);
+            var instructors = slot.instructors().stream().filter(id -> !bookedAt.test(id, hour)).sorted().toList();
+            var aircraft = slot.aircraft().stream().filter(id -> !bookedAt.test(id, hour)).sorted().toList();
+            addBestOfSlot(candidates, slot.slotId(), instructors, aircraft, request);
+        }
+        return candidates.stream()
+                .sorted(Comparator.comparingInt(Candidate::score).reversed()
+                        .thenComparing(c -> hourOfSlot.get(c.slotId()))
+                        .thenComparing(Candidate::slotId)
+                        .thenComparing(Candidate::instructorId)
+                        .thenComparing(Candidate::aircraftId))
+                .limit(request.limit())
+                .toList();
+    }
+
+    // Adds at most limit trios of each score to the candidates, in ranking order, rather than the
+    // whole instructor x aircraft cross product: no more of one score can make the final cut.
+    private static void addBestOfSlot(List<Candidate> candidates, String slotId, List<String> instructors,
+                                      List<String> aircraft, MatchRequest request) {
+        var preferredInstructor = request.preferredInstructorId();
+        var preferredAircraft = request.preferredAircraftId();
+        boolean hasPreferredInstructor = preferredInstructor != null && instructors.contains(preferredInstructor);
+        boolean hasPreferredAircraft = preferredAircraft != null && aircraft.contains(preferredAircraft);
+        var otherInstructors = instructors.stream().filter(id -> !id.equals(preferredInstructor)).toList();
+        var otherAircraft = aircraft.stream().filter(id -> !id.equals(preferredAircraft)).toList();
+        int limit = request.limit();
+
+        if (hasPreferredInstructor && hasPreferredAircraft) {
+            candidates.add(new Candidate(slotId, preferredInstructor, preferredAircraft, 3));
+        }
+        if (hasPreferredInstructor) {
+            otherAircraft.stream().limit(limit)
+                    .forEach(aircraftId -> candidates.add(new Candidate(slotId, preferredInstructor, aircraftId, 2)));
+        }
+        if (hasPreferredAircraft) {
+            otherInstructors.stream().limit(limit)
+                    .forEach(instructorId -> candidates.add(new Candidate(slotId, instructorId, preferredAircraft, 1)));
+        }
+        int added = 0;
+        for (String instructorId : otherInstructors) {
+            for (String aircraftId : otherAircraft) {
+                if (added++ == limit) return;
+                candidates.add(new Candidate(slotId, instructorId, aircraftId, 0));
+            }
+        }
+    }
+}
@@ -9,6 +9,8 @@ import io.example.domain.Participant;
 import io.example.domain.Timeslot;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,26 +39,44 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
                 .thenReply(newState -> Done.getInstance());
     }
 
-    // NOTE: booking a slot should produce 3x
-    // `ParticipantBooked` events
+    // Booking a slot produces a single `BookingConfirmed` event
+    // carrying all three participants. Callers check availability up front, but another booking
+    // can get in between, so the check is made again here, where it is atomic with the write.
+    // Booking the same ID again with the same participants is a no-op, as when a retry lands
+    // on a booking already made.
     public Effect<Done> bookSlot(Command.BookReservation cmd) {
-        var studentEvent = new BookingEvent.ParticipantBooked(entityId, cmd.studentId, Participant.ParticipantType.STUDENT, cmd.bookingId);
-        var aircraftEvent = new BookingEvent.ParticipantBooked(entityId, cmd.aircraftId, Participant.ParticipantType.AIRCRAFT, cmd.bookingId);
-        var instructorEvent = new BookingEvent.ParticipantBooked(entityId, cmd.instructorId, Participant.ParticipantType.INSTRUCTOR, cmd.bookingId);
+        var existing = currentState().findBooking(cmd.bookingId);
+        if (!existing.isEmpty()) {
+            var participantIds = existing.stream().map(b -> b.participant().id()).collect(Collectors.toSet());
+            if (participantIds.equals(Set.of(cmd.studentId, cmd.aircraftId, cmd.instructorId))) {
+                return effects().reply(Done.getInstance());
+            }
+            logger.warn("Booking {} already exists in slot {} with other participants", cmd.bookingId, entityId);
+            return effects().error("Booking " + cmd.bookingId + " already exists with other participants");
+        }
+        if (!currentState().isBookable(cmd.studentId, cmd.aircraftId, cmd.instructorId)) {
+            return effects().error("Not all participants of booking " + cmd.bookingId + " are available in slot " + entityId);
+        }
+        var event = new BookingEvent.BookingConfirmed(entityId, cmd.bookingId, List.of(
+                new Participant(cmd.studentId, Participant.ParticipantType.STUDENT),
+                new Participant(cmd.aircraftId, Participant.ParticipantType.AIRCRAFT),
+                new Participant(cmd.instructorId, Participant.ParticipantType.INSTRUCTOR)));
         return effects()
-                .persistAll(List.of(studentEvent, aircraftEvent, instructorEvent))
+                .persist(event)
                 .thenReply(newState -> Done.getInstance());
     }
 
-    // NOTE: canceling a booking should produce 3
-    // `ParticipantCanceled` events
+    // Canceling a booking produces a single `BookingCanceled` event
+    // carrying all of the booking's participants
     public Effect<Done> cancelBooking(String bookingId) {
-
-        var events = currentState().findBooking(bookingId).stream().map(booking -> new BookingEvent.ParticipantCanceled(
-                entityId, booking.participant().id(), booking.participant().participantType(), bookingId
-        )).toList();
+        var participants = currentState().findBooking(bookingId).stream()
+                .map(Timeslot.Booking::participant)
+                .toList();
+        if (participants.isEmpty()) {
+            return effects().reply(Done.getInstance());
+        }
         return effects()
-                .persistAll(events)
+                .persist(new BookingEvent.BookingCanceled(entityId, bookingId, participants))
                 .thenReply(newState -> Done.getInstance());
     }
 
@@ -64,6 +84,19 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
         return effects().reply(currentState());
     }
 
+    // The sequence number of the last event applied, which changes whenever the slot does.
+    // Lets pollers check for changes without the whole Timeslot being serialized.
+    public ReadOnlyEffect<Long> getVersion() {
+        return effects().reply(commandContext().sequenceNumber());
+    }
+
+    public ReadOnlyEffect<VersionedSlot> getVersionedSlot() {
+        return effects().reply(new VersionedSlot(commandContext().sequenceNumber(), currentState()));
+    }
+
+    public record VersionedSlot(long version, Timeslot slot) {
+    }
+
     @Override
     public Timeslot emptyState() {
         return new Timeslot(
@@ -85,6 +118,10 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
             case BookingEvent.ParticipantCanceled e:
                 // not sure about this one
                 yield currentState().cancelBooking(e.bookingId());
+            case BookingEvent.BookingConfirmed e:
+                yield currentState().book(e);
+            case BookingEvent.BookingCanceled e:
+                yield currentState().cancelBooking(e.bookingId());
         };
     }
 
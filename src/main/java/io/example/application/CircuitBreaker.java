@@ -0,0 +1,138 @@
+package io.example.application;
+
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// A small latency-aware circuit breaker shared by the upstream calls made on the booking path
+// (Google Weather / Geocoding and the Gemini model behind the FlightConditionsAgent).
+//
+// Failures *and* calls slower than the slow-call threshold count towards tripping the breaker,
+// so a brownout that answers eventually trips it just like an outage does. While open, calls
+// fail fast with an OpenException until the reset timeout has passed, after which a single
+// trial call is let through (half-open) to decide whether to close again.
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public static class OpenException extends RuntimeException {
+        public OpenException(String name) {
+            super("Circuit breaker '" + name + "' is open");
+        }
+    }
+
+    private final String name;
+    private final int maxFailures;
+    private final Duration callTimeout;
+    private final Duration slowCallThreshold;
+    private final Duration resetTimeout;
+
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long openedAtNanos = 0L;
+    private boolean trialInFlight = false;
+
+    public CircuitBreaker(String name, int maxFailures, Duration callTimeout, Duration slowCallThreshold, Duration resetTimeout) {
+        this.name = name;
+        this.maxFailures = maxFailures;
+        this.callTimeout = callTimeout;
+        this.slowCallThreshold = slowCallThreshold;
+        this.resetTimeout = resetTimeout;
+    }
+
+    // Reads max-failures, call-timeout, slow-call-threshold and reset-timeout from the given block
+    public static CircuitBreaker fromConfig(String name, Config config) {
+        return new CircuitBreaker(
+                name,
+                config.getInt("max-failures"),
+                config.getDuration("call-timeout"),
+                config.getDuration("slow-call-threshold"),
+                config.getDuration("reset-timeout"));
+    }
+
+    // The hard upper bound callers should put on a single upstream call
+    public Duration callTimeout() {
+        return callTimeout;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    // Whether a call made now would be let through, without taking the half-open trial slot
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.nanoTime() - openedAtNanos >= resetTimeout.toNanos();
+            case HALF_OPEN -> !trialInFlight;
+        };
+    }
+
+    public <T> T call(Supplier<T> body) {
+        if (!allowRequest()) {
+            throw new OpenException(name);
+        }
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = body.get();
+        } catch (RuntimeException e) {
+            onFailure("call failed: " + e.getMessage());
+            throw e;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        if (elapsedNanos > slowCallThreshold.toNanos()) {
+            onFailure("slow call took " + Duration.ofNanos(elapsedNanos).toMillis() + "ms");
+        } else {
+            onSuccess();
+        }
+        return result;
+    }
+
+    private synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAtNanos >= resetTimeout.toNanos()) {
+                    state = State.HALF_OPEN;
+                    trialInFlight = true;
+                    log.info("Circuit breaker '{}' half-open, letting a trial call through", name);
+                    return true;
+                }
+                return false;
+            case HALF_OPEN:
+            default:
+                // only one trial call at a time while half-open
+                if (trialInFlight) return false;
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Circuit breaker '{}' closed again", name);
+        }
+        state = State.CLOSED;
+        failures = 0;
+        trialInFlight = false;
+    }
+
+    private synchronized void onFailure(String reason) {
+        trialInFlight = false;
+        failures++;
+        if (state == State.HALF_OPEN || failures >= maxFailures) {
+            if (state != State.OPEN) {
+                log.warn("Circuit breaker '{}' opened after {} failure(s), last: {}", name, failures, reason);
+            }
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+}
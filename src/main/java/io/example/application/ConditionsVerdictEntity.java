@@ -0,0 +1,35 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import io.example.application.FlightConditionsAgent.ConditionsReport;
+
+import java.time.Instant;
+
+// Holds the most recent flight conditions verdict for a slot, so the booking path can read a
+// precomputed answer instead of calling the agent. Keyed by slot ID, which includes the airfield.
+@Component(id = "conditions-verdict")
+public class ConditionsVerdictEntity extends KeyValueEntity<ConditionsVerdictEntity.State> {
+
+    public record State(ConditionsReport report, Instant evaluatedAt) {
+        public boolean isEmpty() {
+            return report == null;
+        }
+    }
+
+    public Effect<Done> record(State verdict) {
+        return effects()
+                .updateState(verdict)
+                .thenReply(Done.getInstance());
+    }
+
+    public Effect<State> getVerdict() {
+        return effects().reply(currentState());
+    }
+
+    @Override
+    public State emptyState() {
+        return new State(null, Instant.EPOCH);
+    }
+}
@@ -1,10 +1,14 @@
 package io.example.application;
 
 import akka.javasdk.agent.Agent;
+import akka.javasdk.agent.MemoryProvider;
 import akka.javasdk.agent.ModelProvider;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.FunctionTool;
 import akka.javasdk.client.ComponentClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.Config;
 
 /*
  * The flight conditions agent is responsible for making a determination about the flight
@@ -25,11 +29,54 @@ public class FlightConditionsAgent extends Agent {
 
     private final ComponentClient componentClient;
     private final GoogleWeatherService googleWeatherSerivce;
+    private final MemoryMode memoryMode;
+    private final PromptMode promptMode;
+    private final String modelName;
+    private final AgentMetrics metrics;
 
 
-    public FlightConditionsAgent(ComponentClient componentClient) {
+    // The weather service and metrics are the shared instances provided by Bootstrap
+    public FlightConditionsAgent(ComponentClient componentClient, GoogleWeatherService googleWeatherService,
+                                 AgentMetrics metrics, Config config) {
         this.componentClient = componentClient;
-        this.googleWeatherSerivce = new GoogleWeatherService();
+        this.googleWeatherSerivce = googleWeatherService;
+        this.metrics = metrics;
+        this.memoryMode = MemoryMode.parse(config.getString("flight-conditions.agent-memory"));
+        this.promptMode = PromptMode.parse(config.getString("flight-conditions.agent-prompt"));
+        this.modelName = config.getString("flight-conditions.agent-model");
+    }
+
+    // FULL sends the original prompt and lets the model fetch and search a whole forecast page
+    // with the getWeatherForecast tool. COMPACT extracts the slot's hour up front and sends only
+    // the limits and those few values, with no tool round trip.
+    public enum PromptMode {
+        FULL, COMPACT;
+
+        // "full" or "compact"
+        public static PromptMode parse(String mode) {
+            return valueOf(mode.trim().toUpperCase());
+        }
+    }
+
+    // Verdicts are one-shot, so by default nothing is kept in session memory (NONE). AIRFIELD_DAY
+    // keeps a small window of history in one session per airfield and day instead, see sessionId().
+    public enum MemoryMode {
+        NONE, AIRFIELD_DAY;
+
+        // "none" or "airfield-day"
+        public static MemoryMode parse(String mode) {
+            return valueOf(mode.trim().toUpperCase().replace('-', '_'));
+        }
+
+        public boolean persists() {
+            return this != NONE;
+        }
+    }
+
+    // Callers reuse one session per airfield and day rather than a new one per call, so the
+    // number of sessions stays bounded whatever the memory mode
+    public static String sessionId(String location, String timeSlotId) {
+        return "conditions-" + location.trim().toLowerCase().replace(' ', '-') + "-" + timeSlotId.substring(0, 10);
     }
 
     public record ConditionsReport(String timeSlotId, Boolean meetsRequirements, String justification) {
@@ -96,17 +143,56 @@ public class FlightConditionsAgent extends Agent {
             You should not reply with anything else since you life depends on it.
             """.stripIndent();
 
-    public record AgentCommand(String timeSlotId, String location) {
+    private static final String COMPACT_SYSTEM_MESSAGE = """
+            You decide if one forecast hour is safe for a training flight.
+            It is safe only if all of these hold:
+            temperatureCelsius > %s, windSpeedKph < %s, windGustKph < %s, visibilityKm > %s, daytime = true, thunderstormProbability < %s
+            A null value is unknown, and an hour with any unknown value is not safe.
+            Reply only with JSON: {"timeSlotId": "<as given>", "meetsRequirements": <boolean>, "justification": "<reason, naming every limit broken>"}
+            """.formatted(
+                    ForecastHour.MIN_TEMPERATURE_CELSIUS,
+                    ForecastHour.MAX_WIND_SPEED_KPH,
+                    ForecastHour.MAX_WIND_GUST_KPH,
+                    ForecastHour.MIN_VISIBILITY_KM,
+                    ForecastHour.MAX_THUNDERSTORM_PROBABILITY)
+            .stripIndent();
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // promptMode overrides the configured prompt mode when set
+    public record AgentCommand(String timeSlotId, String location, PromptMode promptMode) {
+        public AgentCommand(String timeSlotId, String location) {
+            this(timeSlotId, location, null);
+        }
     }
 
-    public Effect<ConditionsReport> weatherReport(AgentCommand cmd) {
-        var model = ModelProvider.fromConfig("gemini-flash");
-        var userMessage = "Validate the conditions of the weather with your available tools and reply with the correct structure, " +
+    public static String userMessage(AgentCommand cmd) {
+        return "Validate the conditions of the weather with your available tools and reply with the correct structure, " +
                 "the timeSlotId is:" + cmd.timeSlotId + "The flight location is: " + cmd.location;
+    }
+
+    private String compactUserMessage(AgentCommand cmd) {
+        var hour = googleWeatherSerivce.getForecastHour(cmd.timeSlotId, cmd.location);
+        try {
+            return "timeSlotId: " + cmd.timeSlotId + "\nforecast: " + mapper.writeValueAsString(hour);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize forecast hour", e);
+        }
+    }
+
+    public Effect<ConditionsReport> weatherReport(AgentCommand cmd) {
+        var model = ModelProvider.fromConfig(modelName);
+        var mode = cmd.promptMode != null ? cmd.promptMode : promptMode;
+        var systemMessage = mode == PromptMode.COMPACT ? COMPACT_SYSTEM_MESSAGE : SYSTEM_MESSAGE;
+        var userMessage = mode == PromptMode.COMPACT ? compactUserMessage(cmd) : userMessage(cmd);
+        var memory = memoryMode.persists() ? MemoryProvider.limitedWindow() : MemoryProvider.none();
+        // tool output, if the model fetches a forecast page, is added by getWeatherForecast
+        metrics.recordPrompt(modelName, systemMessage.length() + userMessage.length());
 
         return effects()
+                .memory(memory)
                 .model(model)
-                .systemMessage(SYSTEM_MESSAGE)
+                .systemMessage(systemMessage)
                 .userMessage(userMessage)
                 .responseAs(ConditionsReport.class)
                 .thenReply();
@@ -121,7 +207,9 @@ public class FlightConditionsAgent extends Agent {
      */
     @FunctionTool(description = "Queries the weather conditions using Google Maps Platform based on the location")
     private String getWeatherForecast(String timeSlotId, String location) {
-        return googleWeatherSerivce.getGoogleWeather(timeSlotId, location);
+        var forecast = googleWeatherSerivce.getGoogleWeather(timeSlotId, location);
+        metrics.recordPrompt(modelName, forecast.length());
+        return forecast;
     }
 }
 
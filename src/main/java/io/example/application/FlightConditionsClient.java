@@ -0,0 +1,194 @@
+package io.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import io.example.application.FlightConditionsAgent.ConditionsReport;
+import io.example.domain.SlotKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Front door to the FlightConditionsAgent for the booking path. Verdicts precomputed by the
+// ForecastPrefetcher are served straight from the ConditionsVerdictEntity while fresh. Otherwise
+// the agent call is guarded by a circuit breaker with a hard call timeout, so an upstream
+// brownout (Gemini or Google Weather) costs milliseconds rather than minutes of retries. When
+// the call cannot be made, the last-known verdict for the slot is served if it is recent enough,
+// otherwise an explicit "unknown" verdict. A single instance is shared by the whole service
+// (see Bootstrap), so the breaker sees every call.
+public class FlightConditionsClient {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightConditionsClient.class);
+
+    private final ComponentClient componentClient;
+    private final GoogleWeatherService weatherService;
+    private final CircuitBreaker breaker;
+    private final Duration staleVerdictMaxAge;
+    private final Duration prefetchedVerdictMaxAge;
+    private final Config airfieldLocations;
+    private final FlightConditionsAgent.MemoryMode memoryMode;
+    private final AgentMetrics metrics;
+    private final String modelName;
+
+    // Takes the flight-conditions config block
+    public FlightConditionsClient(ComponentClient componentClient, GoogleWeatherService weatherService,
+                                  Config settings, AgentMetrics metrics) {
+        this.componentClient = componentClient;
+        this.weatherService = weatherService;
+        this.metrics = metrics;
+        this.memoryMode = FlightConditionsAgent.MemoryMode.parse(settings.getString("agent-memory"));
+        this.modelName = settings.getString("agent-model");
+        this.breaker = CircuitBreaker.fromConfig("flight-conditions-agent", modelBreakerConfig(settings));
+        this.staleVerdictMaxAge = settings.getDuration("stale-verdict-max-age");
+        this.prefetchedVerdictMaxAge = settings.getDuration("prefetch.verdict-max-age");
+        this.airfieldLocations = settings.getConfig("airfields");
+    }
+
+    // The model-breaker block with the call-timeout and slow-call-threshold of the agent model
+    private static Config modelBreakerConfig(Config settings) {
+        var breakerConfig = settings.getConfig("model-breaker");
+        return breakerConfig.getConfig(settings.getString("agent-model")).withFallback(breakerConfig);
+    }
+
+    // Weather requests one tool call can make: the geocode lookup plus every forecast page up to
+    // the furthest forecastable hour (240 hours, 24 per page, pages 0 to 10)
+    static final int MAX_WEATHER_REQUESTS_PER_CALL = 1 + 11;
+
+    // The longest an agent call can take before the model client and the weather breaker give up
+    // on their own: each model round trip with its retries (two in the full prompt, around the
+    // tool call, one in the compact prompt) plus the slowest page walk. Takes the root config, as
+    // the model timeouts live under akka.javasdk.agent.
+    public static Duration worstCaseCallTime(Config config) {
+        var settings = config.getConfig("flight-conditions");
+        var model = config.getConfig("akka.javasdk.agent." + settings.getString("agent-model"));
+        var roundTrip = model.getDuration("connection-timeout")
+                .plus(model.getDuration("response-timeout"))
+                .multipliedBy(model.getInt("max-retries") + 1);
+        var promptMode = FlightConditionsAgent.PromptMode.parse(settings.getString("agent-prompt"));
+        int roundTrips = promptMode == FlightConditionsAgent.PromptMode.COMPACT ? 1 : 2;
+        var pageWalk = settings.getDuration("weather-breaker.call-timeout").multipliedBy(MAX_WEATHER_REQUESTS_PER_CALL);
+        return roundTrip.multipliedBy(roundTrips).plus(pageWalk);
+    }
+
+    public Duration callTimeout() {
+        return breaker.callTimeout();
+    }
+
+    // Where a verdict came from: a precomputed verdict, a fresh agent call, an older verdict
+    // served because the agent is unavailable, or nowhere at all
+    public enum Source { PREFETCHED, LIVE, STALE, UNKNOWN }
+
+    public record Verdict(ConditionsReport report, Source source) {
+        public boolean isKnown() {
+            return source != Source.UNKNOWN;
+        }
+    }
+
+    // The weather location (geocoding query) for an airfield, as configured under
+    // flight-conditions.airfields. Airfields that are not configured are looked up by their ID.
+    public String locationFor(String airfield) {
+        return airfieldLocations.hasPath(airfield) ? airfieldLocations.getString(airfield) : airfield;
+    }
+
+    // Returns the prefetched verdict when there is a fresh one, otherwise evaluates the slot now
+    public Verdict check(String slotId) {
+        var stored = storedVerdict(slotId);
+        if (!stored.isEmpty() && stored.evaluatedAt().plus(prefetchedVerdictMaxAge).isAfter(Instant.now())) {
+            return new Verdict(stored.report(), Source.PREFETCHED);
+        }
+        return evaluate(slotId, stored);
+    }
+
+    // Asks the agent (through the breaker) and records the result for later readers, unless the
+    // stored verdict is younger than minAge
+    public Verdict refresh(String slotId, Duration minAge) {
+        var stored = storedVerdict(slotId);
+        if (!stored.isEmpty() && stored.evaluatedAt().plus(minAge).isAfter(Instant.now())) {
+            return new Verdict(stored.report(), Source.PREFETCHED);
+        }
+        return evaluate(slotId, stored);
+    }
+
+    private Verdict evaluate(String slotId, ConditionsVerdictEntity.State stored) {
+        var slot = SlotKey.parse(slotId);
+        var location = locationFor(slot.airfield());
+        // A weather outage inside the agent's tool doesn't reach us: the model answers anyway,
+        // after a full round trip. So don't ask the agent when it can't get a forecast.
+        if (!weatherService.canForecast(slot.hour(), location)) {
+            return fallback(slotId, location, stored, "weather services are unavailable");
+        }
+        ConditionsReport report;
+        try {
+            report = breaker.call(() -> askAgent(slot.hour(), location));
+        } catch (RuntimeException e) {
+            return fallback(slotId, location, stored, e.getMessage());
+        }
+
+        try {
+            componentClient
+                    .forKeyValueEntity(slotId)
+                    .method(ConditionsVerdictEntity::record)
+                    .invoke(new ConditionsVerdictEntity.State(report, Instant.now()));
+        } catch (Exception e) {
+            log.warn("Could not record verdict for slot {} in {}: {}", slotId, location, e.getMessage());
+        }
+        return new Verdict(report, Source.LIVE);
+    }
+
+    // The last-known verdict if it is recent enough, otherwise an explicit unknown verdict
+    private Verdict fallback(String slotId, String location, ConditionsVerdictEntity.State stored, String reason) {
+        if (!stored.isEmpty() && stored.evaluatedAt().plus(staleVerdictMaxAge).isAfter(Instant.now())) {
+            log.warn("Flight conditions agent unavailable ({}), serving verdict for {} from {}",
+                    reason, slotId, stored.evaluatedAt());
+            return new Verdict(stored.report(), Source.STALE);
+        }
+        log.warn("Flight conditions unknown for slot {} in {}: {}", slotId, location, reason);
+        return new Verdict(
+                new ConditionsReport(slotId, false, "Flight conditions are currently unknown, weather services are unavailable"),
+                Source.UNKNOWN);
+    }
+
+    private ConditionsVerdictEntity.State storedVerdict(String slotId) {
+        try {
+            return componentClient
+                    .forKeyValueEntity(slotId)
+                    .method(ConditionsVerdictEntity::getVerdict)
+                    .invoke();
+        } catch (Exception e) {
+            log.warn("Could not read stored verdict for slot {}: {}", slotId, e.getMessage());
+            return new ConditionsVerdictEntity.State(null, Instant.EPOCH);
+        }
+    }
+
+    // The agent works on the bare hour, the airfield is conveyed by the location
+    private ConditionsReport askAgent(String hour, String location) {
+        var sessionId = FlightConditionsAgent.sessionId(location, hour);
+        var command = new FlightConditionsAgent.AgentCommand(hour, location);
+        var timeout = breaker.callTimeout();
+        long start = System.nanoTime();
+        try {
+            var report = componentClient.forAgent()
+                    .inSession(sessionId)
+                    .method(FlightConditionsAgent::weatherReport)
+                    .invokeAsync(command)
+                    .toCompletableFuture()
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            metrics.recordCall(sessionId, memoryMode.persists(),
+                    FlightConditionsAgent.userMessage(command).length() + report.justification().length());
+            metrics.recordCompletion(modelName, report.justification().length() + report.timeSlotId().length(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return report;
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Flight conditions agent timed out after " + timeout.toMillis() + "ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for flight conditions agent", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Flight conditions agent failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.example.application;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// The handful of values from one hour of a Google Weather forecast page that decide whether
+// it is safe to fly, along with the limits they are judged against. Used to send the agent a
+// compact prompt instead of a whole forecast page. A value the page leaves out is null, meaning
+// unknown, and an hour with an unknown value is not safe to fly.
+public record ForecastHour(
+        String timeSlotId,
+        Double temperatureCelsius,
+        Double windSpeedKph,
+        Double windGustKph,
+        Double visibilityKm,
+        Boolean daytime,
+        Integer thunderstormProbability) {
+
+    // Safe flying limits, shared with the agent prompts
+    public static final double MIN_TEMPERATURE_CELSIUS = 0;
+    public static final double MAX_WIND_SPEED_KPH = 30;
+    public static final double MAX_WIND_GUST_KPH = 45;
+    public static final double MIN_VISIBILITY_KM = 10;
+    public static final int MAX_THUNDERSTORM_PROBABILITY = 30;
+
+    private static final DateTimeFormatter SLOT_HOUR = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH").withZone(ZoneOffset.UTC);
+
+    // Every hour on a forecast page, in page order
+    public static List<ForecastHour> extractAll(JsonNode page) {
+        var hours = new ArrayList<ForecastHour>();
+        for (JsonNode hour : page.path("forecastHours")) {
+            var startTime = hour.path("interval").path("startTime").asText(null);
+            if (startTime == null) continue;
+            hours.add(new ForecastHour(
+                    SLOT_HOUR.format(Instant.parse(startTime)),
+                    number(hour.path("temperature").path("degrees")),
+                    number(hour.path("wind").path("speed").path("value")),
+                    number(hour.path("wind").path("gust").path("value")),
+                    number(hour.path("visibility").path("distance")),
+                    hour.path("isDaytime").isBoolean() ? hour.path("isDaytime").asBoolean() : null,
+                    hour.path("thunderstormProbability").isNumber() ? hour.path("thunderstormProbability").asInt() : null));
+        }
+        return hours;
+    }
+
+    // null when the field is missing or not a number, rather than the 0 asDouble() would give
+    private static Double number(JsonNode node) {
+        return node.isNumber() ? node.asDouble() : null;
+    }
+
+    // The hour starting at the given yyyy-MM-dd-HH slot time (UTC), if the page covers it
+    public static Optional<ForecastHour> extract(JsonNode page, String timeSlotId) {
+        return extractAll(page).stream().filter(h -> h.timeSlotId().equals(timeSlotId)).findFirst();
+    }
+
+    // The limits this hour breaks or can't be checked against, empty when it is safe to fly
+    public List<String> violations() {
+        var violations = new ArrayList<String>();
+        if (temperatureCelsius == null)
+            violations.add("temperature is unknown");
+        else if (!(temperatureCelsius > MIN_TEMPERATURE_CELSIUS))
+            violations.add("temperature " + temperatureCelsius + "C is not above " + MIN_TEMPERATURE_CELSIUS + "C");
+        if (windSpeedKph == null)
+            violations.add("wind speed is unknown");
+        else if (!(windSpeedKph < MAX_WIND_SPEED_KPH))
+            violations.add("wind speed " + windSpeedKph + "km/h is not below " + MAX_WIND_SPEED_KPH + "km/h");
+        if (windGustKph == null)
+            violations.add("wind gusts are unknown");
+        else if (!(windGustKph < MAX_WIND_GUST_KPH))
+            violations.add("wind gusts " + windGustKph + "km/h are not below " + MAX_WIND_GUST_KPH + "km/h");
+        if (visibilityKm == null)
+            violations.add("visibility is unknown");
+        else if (!(visibilityKm > MIN_VISIBILITY_KM))
+            violations.add("visibility " + visibilityKm + "km is not above " + MIN_VISIBILITY_KM + "km");
+        if (daytime == null)
+            violations.add("daylight is unknown");
+        else if (!daytime)
+            violations.add("it is not daytime");
+        if (thunderstormProbability == null)
+            violations.add("thunderstorm probability is unknown");
+        else if (!(thunderstormProbability < MAX_THUNDERSTORM_PROBABILITY))
+            violations.add("thunderstorm probability " + thunderstormProbability + "% is not below " + MAX_THUNDERSTORM_PROBABILITY + "%");
+        return violations;
+    }
+
+    // Whether the page had every value the verdict depends on
+    public boolean isComplete() {
+        return temperatureCelsius != null && windSpeedKph != null && windGustKph != null
+                && visibilityKm != null && daytime != null && thunderstormProbability != null;
+    }
+
+    public boolean meetsRequirements() {
+        return violations().isEmpty();
+    }
+}
@@ -0,0 +1,43 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.BookingEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Tracks which slots are worth a forecast: as soon as somebody marks themselves available in
+// a slot, a ForecastPrefetcher run is scheduled for the moment the slot enters the forecast window
+@Component(id = "forecast-prefetch-consumer")
+@Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+public class ForecastPrefetchConsumer extends Consumer {
+
+    private final ComponentClient client;
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    public ForecastPrefetchConsumer(ComponentClient client) {
+        this.client = client;
+    }
+
+    public Effect onEvent(BookingEvent event) {
+        return switch (event) {
+            case BookingEvent.ParticipantMarkedAvailable e -> {
+                if (ForecastPrefetcher.hasStarted(e.slotId())) {
+                    yield effects().ignore();
+                }
+                var delay = ForecastPrefetcher.delayUntilForecastable(e.slotId());
+                logger.info("Scheduling conditions prefetch for slot {} in {}", e.slotId(), delay);
+                timers().createSingleTimer(
+                        ForecastPrefetcher.timerName(e.slotId()),
+                        delay,
+                        client.forTimedAction()
+                                .method(ForecastPrefetcher::refresh)
+                                .deferred(e.slotId()));
+                yield effects().done();
+            }
+            default -> effects().ignore();
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import com.typesafe.config.Config;
+import io.example.domain.SlotKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Precomputes the flight conditions verdict for slots that participants have marked themselves
+// available in, so that createBooking reads a ready answer from the ConditionsVerdictEntity and
+// the weather/LLM latency stays off the user-facing path. Each run refreshes the verdict and
+// schedules the next run, until the slot has started or nobody is available in it any more.
+@Component(id = "forecast-prefetcher")
+public class ForecastPrefetcher extends TimedAction {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastPrefetcher.class);
+    // Google Weather only forecasts this far ahead
+    public static final Duration FORECAST_WINDOW = Duration.ofHours(240);
+
+    private final ComponentClient componentClient;
+    private final FlightConditionsClient conditionsClient;
+    private final Duration refreshInterval;
+    private final Duration retryInterval;
+
+    public ForecastPrefetcher(ComponentClient componentClient, FlightConditionsClient conditionsClient, Config config) {
+        this.componentClient = componentClient;
+        this.conditionsClient = conditionsClient;
+        this.refreshInterval = config.getDuration("flight-conditions.prefetch.refresh-interval");
+        this.retryInterval = config.getDuration("flight-conditions.prefetch.retry-interval");
+    }
+
+    public static String timerName(String slotId) {
+        return "prefetch-" + slotId;
+    }
+
+    // How long until the slot enters the forecast window, zero if it already has
+    public static Duration delayUntilForecastable(String slotId) {
+        var untilWindow = Duration.between(nowUtc(), slotStart(slotId)).minus(FORECAST_WINDOW);
+        return untilWindow.isNegative() ? Duration.ZERO : untilWindow;
+    }
+
+    public static boolean hasStarted(String slotId) {
+        return !slotStart(slotId).isAfter(nowUtc());
+    }
+
+    public Effect refresh(String slotId) {
+        if (hasStarted(slotId)) {
+            log.info("Slot {} has started, no longer prefetching its conditions", slotId);
+            return effects().done();
+        }
+
+        var slot = componentClient
+                .forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::getSlot)
+                .invoke();
+        if (slot.available().isEmpty()) {
+            log.info("Nobody is available in slot {}, no longer prefetching its conditions", slotId);
+            return effects().done();
+        }
+
+        // Several markings in a row each trigger a run, only the first needs to ask the agent
+        var verdict = conditionsClient.refresh(slotId, refreshInterval.dividedBy(2));
+        log.info("Prefetched conditions for slot {}: {} ({})",
+                slotId, verdict.report().meetsRequirements(), verdict.source());
+
+        var nextRun = verdict.source() == FlightConditionsClient.Source.UNKNOWN ? retryInterval : refreshInterval;
+        timers().createSingleTimer(
+                timerName(slotId),
+                nextRun,
+                componentClient.forTimedAction()
+                        .method(ForecastPrefetcher::refresh)
+                        .deferred(slotId));
+        return effects().done();
+    }
+
+    private static LocalDateTime slotStart(String slotId) {
+        return SlotKey.parse(slotId).startTime();
+    }
+
+    private static LocalDateTime nowUtc() {
+        return LocalDateTime.now(ZoneId.of("UTC"));
+    }
+}
@@ -1,49 +1,255 @@
 package io.example.application;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+// A single instance is shared by the whole service (see Bootstrap), so the HTTP/2 connection
+// pool, the TLS sessions, the circuit breakers and the last-known forecasts are reused by every
+// booking instead of being set up again for each agent instance.
 public class GoogleWeatherService {
 
     private static final ObjectMapper mapper = new ObjectMapper();
     private static final Logger log = LoggerFactory.getLogger(GoogleWeatherService.class);
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
+
+    private final CircuitBreaker breaker;
+    // The conditions calendar's bulk fetches are slower by nature and nobody waits on them, so
+    // they have a breaker of their own and can't trip the one on the booking path
+    private final CircuitBreaker calendarBreaker;
+    private final Duration staleForecastMaxAge;
+    private final int staleForecastMaxEntries;
+    private final Map<String, CachedForecast> lastKnownForecasts = new ConcurrentHashMap<>();
+    // Airfields don't move, so a location is geocoded once. Only successful lookups are kept, and
+    // only up to MAX_GEOCODES of them, as the agent's tool passes whatever location the model names.
+    private static final int MAX_GEOCODES = 1000;
+    private final Map<String, LatLong> geocodes = new ConcurrentHashMap<>();
+    private final Duration forecastRefreshInterval;
+    private final Map<String, CachedHours> forecastHoursByLocation = new ConcurrentHashMap<>();
+
     private final HttpClient httpClient;
     private final String apiKey;
 
-    public GoogleWeatherService(){
-        this.httpClient = HttpClient.newHttpClient();
-        this.apiKey = System.getenv("GOOGLE_API_KEY");
+    // Takes the flight-conditions config block
+    public GoogleWeatherService(Config settings, String apiKey){
+        this.breaker = CircuitBreaker.fromConfig("google-weather", settings.getConfig("weather-breaker"));
+        this.calendarBreaker = CircuitBreaker.fromConfig("google-weather-calendar", settings.getConfig("calendar-breaker"));
+        this.staleForecastMaxAge = settings.getDuration("stale-forecast-max-age");
+        this.staleForecastMaxEntries = settings.getInt("stale-forecast-max-entries");
+        this.forecastRefreshInterval = settings.getDuration("forecast-refresh-interval");
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(breaker.callTimeout())
+                // blocking sends are cheap on virtual threads, and nothing here competes
+                // with the SDK's own dispatchers
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.apiKey = apiKey;
+    }
+
+    // Opens the pooled HTTP/2 connections to the weather and geocoding APIs (DNS, TCP and the
+    // TLS handshake) ahead of the first forecast request, which needs both. The responses
+    // themselves are of no interest, and no API key is sent.
+    public void warmUpConnection(Duration timeout) {
+        for (String host : List.of("https://weather.googleapis.com/", "https://maps.googleapis.com/")) {
+            try {
+                var request = HttpRequest.newBuilder()
+                        .uri(URI.create(host))
+                        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                        .timeout(timeout)
+                        .build();
+                httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Could not open a connection to {} during warm-up: {}", host, e.toString());
+            }
+        }
     }
 
     public record LatLong(double latitude, double longitude) {}
 
+    private record CachedForecast(String body, Instant slotStart, Instant fetchedAt) {
+        // Young enough to fall back on, and for a slot that hasn't started yet
+        boolean isServable(Instant now, Duration maxAge) {
+            return fetchedAt.plus(maxAge).isAfter(now) && slotStart.isAfter(now);
+        }
+    }
+
+    private record CachedHours(List<ForecastHour> hours, Instant fetchedAt) {}
+
+    // Thrown when the weather service cannot be reached and there is no recent enough
+    // forecast to fall back on, so the flight conditions are unknown
+    public static class ConditionsUnknownException extends RuntimeException {
+        public ConditionsUnknownException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    // Returns the forecast page containing the given slot. Each upstream request goes through the
+    // circuit breaker; when one fails (or the breaker is open) the last-known forecast for the
+    // slot is served if it is younger than the configured staleness bound.
     public String getGoogleWeather(String timeSlotId, String location) {
+        // validate the range up front so a bad request never counts against the breaker
+        hoursUntil(timeSlotId);
+
+        var cacheKey = location + "|" + timeSlotId;
+        try {
+            var body = fetchForecastPage(timeSlotId, location);
+            rememberForecast(location, timeSlotId, body);
+            return body;
+        } catch (RuntimeException e) {
+            var cached = lastKnownForecasts.get(cacheKey);
+            if (cached != null && cached.isServable(Instant.now(), staleForecastMaxAge)) {
+                log.warn("Weather API unavailable ({}), serving forecast for {} in {} fetched at {}",
+                        e.getMessage(), timeSlotId, location, cached.fetchedAt());
+                return cached.body();
+            }
+            throw new ConditionsUnknownException(
+                    "Weather conditions unknown for " + timeSlotId + " in " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Whether a forecast for the slot can be had right now: the breaker would let a request
+    // through, or there is a last-known forecast young enough to fall back on
+    public boolean canForecast(String timeSlotId, String location) {
+        if (breaker.isCallPermitted()) return true;
+        var cached = lastKnownForecasts.get(location + "|" + timeSlotId);
+        return cached != null && cached.isServable(Instant.now(), staleForecastMaxAge);
+    }
+
+    // Keeps the page as the last-known forecast for the slot. Entries that can no longer be
+    // served are dropped on the way, and when there are still more than the configured maximum
+    // the oldest go, so the fallback holds at most stale-forecast-max-entries pages. Pages are
+    // only stored after an upstream fetch (at most one per agent call), so the sweep is cheap
+    // next to the request that triggered it.
+    void rememberForecast(String location, String timeSlotId, String body) {
+        var now = Instant.now();
+        var slotStart = LocalDateTime.parse(timeSlotId, SLOT_FORMAT).toInstant(ZoneOffset.UTC);
+        lastKnownForecasts.put(location + "|" + timeSlotId, new CachedForecast(body, slotStart, now));
+        lastKnownForecasts.values().removeIf(cached -> !cached.isServable(now, staleForecastMaxAge));
+        while (lastKnownForecasts.size() > staleForecastMaxEntries) {
+            lastKnownForecasts.entrySet().stream()
+                    .min(Map.Entry.comparingByValue(Comparator.comparing(CachedForecast::fetchedAt)))
+                    .ifPresent(oldest -> lastKnownForecasts.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    // Number of last-known forecast pages currently held
+    int lastKnownForecastCount() {
+        return lastKnownForecasts.size();
+    }
+
+    // Just the values that matter for the given slot hour, extracted from its forecast page
+    public ForecastHour getForecastHour(String timeSlotId, String location) {
+        var page = getGoogleWeather(timeSlotId, location);
+        try {
+            return ForecastHour.extract(mapper.readTree(page), timeSlotId)
+                    .orElseThrow(() -> new ConditionsUnknownException(
+                            "Forecast for " + location + " does not cover " + timeSlotId, null));
+        } catch (JsonProcessingException e) {
+            throw new ConditionsUnknownException("Unreadable forecast for " + location, e);
+        }
+    }
+
+    // Every forecast hour for the location (up to 240 hours ahead), fetched in one pass over
+    // all forecast pages and cached until the next forecast refresh. Falls back to the previous
+    // pass within the staleness bound when the weather API is unavailable.
+    public List<ForecastHour> getForecastHours(String location) {
+        var cached = forecastHoursByLocation.get(location);
+        if (cached != null && cached.fetchedAt().plus(forecastRefreshInterval).isAfter(Instant.now())) {
+            return cached.hours();
+        }
+        try {
+            var hours = fetchAllForecastHours(location);
+            forecastHoursByLocation.put(location, new CachedHours(hours, Instant.now()));
+            return hours;
+        } catch (RuntimeException e) {
+            if (cached != null && cached.fetchedAt().plus(staleForecastMaxAge).isAfter(Instant.now())) {
+                log.warn("Weather API unavailable ({}), serving forecast hours for {} fetched at {}",
+                        e.getMessage(), location, cached.fetchedAt());
+                return cached.hours();
+            }
+            throw new ConditionsUnknownException(
+                    "Weather conditions unknown in " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    private List<ForecastHour> fetchAllForecastHours(String location) {
+        var geocode = getLongLat(calendarBreaker, location);
+        String baseUrl = String.format(
+                "https://weather.googleapis.com/v1/forecast/hours:lookup?location.latitude=%f&location.longitude=%f&hours=240&key=%s",
+                geocode.latitude, geocode.longitude, apiKey
+        );
+
+        var hours = new ArrayList<ForecastHour>();
+        String currentToken = null;
+        try {
+            // 10 pages of 24 hours cover the whole 240 hour forecast
+            for (int i = 0; i < 10; i++) {
+                String requestUrl = baseUrl;
+                if (currentToken != null) {
+                    requestUrl += "&page_token=" + URLEncoder.encode(currentToken, StandardCharsets.UTF_8);
+                }
+
+                HttpResponse<String> weatherResponse = send(calendarBreaker, requestUrl, "Weather API");
+
+                JsonNode root = mapper.readTree(weatherResponse.body());
+                hours.addAll(ForecastHour.extractAll(root));
+                if (!root.has("nextPageToken")) break;
+                currentToken = root.get("nextPageToken").asText();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("API Service Failure: ", e);
+        }
+        log.info("Fetched {} forecast hours for {}", hours.size(), location);
+        return List.copyOf(hours);
+    }
+
+    private long hoursUntil(String timeSlotId) {
         // example timeSlotId = 2025-12-26-12
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
-        LocalDateTime targetTime = LocalDateTime.parse(timeSlotId, formatter);
+        LocalDateTime targetTime = LocalDateTime.parse(timeSlotId, SLOT_FORMAT);
 
         long hoursUntilTarget = ChronoUnit.HOURS.between(LocalDateTime.now(ZoneId.of("UTC")), targetTime);
 
         if (hoursUntilTarget < 0 || hoursUntilTarget > 240) {
             throw new IllegalArgumentException("Target time must be within the next 240 hours (10 days).");
         }
+        return hoursUntilTarget;
+    }
+
+    private String fetchForecastPage(String timeSlotId, String location) {
+        long hoursUntilTarget = hoursUntil(timeSlotId);
 
-        var geocode = getLongLat(location);
+        var geocode = getLongLat(breaker, location);
         String baseUrl = String.format(
                 "https://weather.googleapis.com/v1/forecast/hours:lookup?location.latitude=%f&location.longitude=%f&key=%s",
                 geocode.latitude, geocode.longitude, apiKey
@@ -61,16 +267,7 @@ public class GoogleWeatherService {
                     requestUrl += "&page_token=" + URLEncoder.encode(currentToken, StandardCharsets.UTF_8);
                 }
 
-                HttpRequest weatherRequest = HttpRequest.newBuilder()
-                        .uri(URI.create(requestUrl))
-                        .GET()
-                        .build();
-
-                HttpResponse<String> weatherResponse = httpClient.send(weatherRequest, HttpResponse.BodyHandlers.ofString());
-
-                if (weatherResponse.statusCode() != 200) {
-                    throw new RuntimeException("Weather API failed: " + weatherResponse.body());
-                }
+                HttpResponse<String> weatherResponse = send(breaker, requestUrl, "Weather API");
 
                 String responseBody = weatherResponse.body();
 
@@ -94,15 +291,48 @@ public class GoogleWeatherService {
         throw new RuntimeException("Unexpected execution state.");
     }
 
-    private LatLong getLongLat(String location) {
+    // One upstream request, guarded by the given breaker on its own: a page walk of several
+    // requests is judged request by request, so only a slow or failing request counts against it.
+    // Non-200 answers count as failures.
+    private HttpResponse<String> send(CircuitBreaker breaker, String url, String api) {
+        var request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(breaker.callTimeout())
+                .GET()
+                .build();
+        return breaker.call(() -> {
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(api + " request interrupted", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(api + " request failed", e);
+            }
+            if (response.statusCode() != 200) {
+                throw new RuntimeException(api + " failed: " + response.body());
+            }
+            return response;
+        });
+    }
+
+    private LatLong getLongLat(CircuitBreaker breaker, String location) {
+        var known = geocodes.get(location);
+        if (known != null) return known;
+        var geocode = fetchLongLat(breaker, location);
+        if (geocodes.size() < MAX_GEOCODES) geocodes.put(location, geocode);
+        return geocode;
+    }
+
+    private LatLong fetchLongLat(CircuitBreaker breaker, String location) {
         String geoUrl = String.format(
                 "https://maps.googleapis.com/maps/api/geocode/json?address=%s&key=%s",
                 URLEncoder.encode(location, StandardCharsets.UTF_8),
                 apiKey
         );
         try {
-            HttpRequest geoRequest = HttpRequest.newBuilder().uri(URI.create(geoUrl)).GET().build();
-            HttpResponse<String> geoResponse = httpClient.send(geoRequest, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> geoResponse = send(breaker, geoUrl, "Geocoding API");
 
             String geoBody = geoResponse.body();
 
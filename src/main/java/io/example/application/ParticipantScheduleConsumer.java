@@ -0,0 +1,51 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.BookingEvent;
+import io.example.domain.SlotKey;
+
+// Maintains each participant's ParticipantScheduleEntity from booking slot events. Slot IDs are
+// passed on in canonical form, so both forms of one slot count as the same slot.
+@Component(id = "participant-schedule-consumer")
+@Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+public class ParticipantScheduleConsumer extends Consumer {
+
+    private final ComponentClient client;
+
+    public ParticipantScheduleConsumer(ComponentClient client) {
+        this.client = client;
+    }
+
+    public Effect onEvent(BookingEvent event) {
+        switch (event) {
+            case BookingEvent.ParticipantMarkedAvailable e ->
+                    client.forKeyValueEntity(e.participantId())
+                            .method(ParticipantScheduleEntity::markAvailable)
+                            .invoke(SlotKey.parse(e.slotId()).entityId());
+            case BookingEvent.ParticipantUnmarkedAvailable e ->
+                    client.forKeyValueEntity(e.participantId())
+                            .method(ParticipantScheduleEntity::unmarkAvailable)
+                            .invoke(SlotKey.parse(e.slotId()).entityId());
+            case BookingEvent.ParticipantBooked e ->
+                    client.forKeyValueEntity(e.participantId())
+                            .method(ParticipantScheduleEntity::book)
+                            .invoke(SlotKey.parse(e.slotId()).entityId());
+            case BookingEvent.ParticipantCanceled e ->
+                    client.forKeyValueEntity(e.participantId())
+                            .method(ParticipantScheduleEntity::cancel)
+                            .invoke(SlotKey.parse(e.slotId()).entityId());
+            case BookingEvent.BookingConfirmed e ->
+                    e.participants().forEach(p -> client.forKeyValueEntity(p.id())
+                            .method(ParticipantScheduleEntity::book)
+                            .invoke(SlotKey.parse(e.slotId()).entityId()));
+            case BookingEvent.BookingCanceled e ->
+                    e.participants().forEach(p -> client.forKeyValueEntity(p.id())
+                            .method(ParticipantScheduleEntity::cancel)
+                            .invoke(SlotKey.parse(e.slotId()).entityId()));
+        }
+        return effects().done();
+    }
+}
@@ -0,0 +1,104 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import io.example.domain.HourBitmap;
+import io.example.domain.SlotKey;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The hours a participant is booked or available in, across all slots and airfields, as
+// bitmaps indexed by epoch hour. Keyed by participant ID and maintained by the
+// ParticipantScheduleConsumer. Lets the endpoint answer "is this participant booked at hour H"
+// (or anywhere in a range) in constant time, and so catch conflicts between different slot
+// entities for the same hour.
+//
+// The same hour can be marked (or, through a race, booked) at more than one airfield, so the
+// schedule also keeps the slot IDs behind each set bit, and a bit is only cleared once no slot
+// holds it any more. Recording a slot that is already there, or removing one that isn't, changes
+// nothing, so redelivered events are harmless.
+@Component(id = "participant-schedule")
+public class ParticipantScheduleEntity extends KeyValueEntity<ParticipantScheduleEntity.Schedule> {
+
+    // bookedSlots and availableSlots map an hour to the slot IDs it is booked or available in.
+    // They are absent in schedules stored before they were added; for those hours a removal
+    // clears the bit as it used to.
+    public record Schedule(HourBitmap booked, HourBitmap available,
+                           Map<Long, Set<String>> bookedSlots, Map<Long, Set<String>> availableSlots) {
+        public Schedule {
+            bookedSlots = bookedSlots == null ? new HashMap<>() : new HashMap<>(bookedSlots);
+            availableSlots = availableSlots == null ? new HashMap<>() : new HashMap<>(availableSlots);
+        }
+
+        void add(HourBitmap bits, Map<Long, Set<String>> slots, long hour, String slotId) {
+            slots.computeIfAbsent(hour, h -> new HashSet<>()).add(slotId);
+            bits.set(hour);
+        }
+
+        void remove(HourBitmap bits, Map<Long, Set<String>> slots, long hour, String slotId) {
+            var holders = slots.get(hour);
+            if (holders != null) {
+                holders.remove(slotId);
+                if (!holders.isEmpty()) return;
+                slots.remove(hour);
+            }
+            bits.clear(hour);
+        }
+    }
+
+    public record HourRange(long fromHour, long toHour) {
+    }
+
+    public Effect<Done> markAvailable(String slotId) {
+        var schedule = currentState();
+        schedule.add(schedule.available(), schedule.availableSlots(), hourOf(slotId), slotId);
+        return effects().updateState(schedule).thenReply(Done.getInstance());
+    }
+
+    public Effect<Done> unmarkAvailable(String slotId) {
+        var schedule = currentState();
+        schedule.remove(schedule.available(), schedule.availableSlots(), hourOf(slotId), slotId);
+        return effects().updateState(schedule).thenReply(Done.getInstance());
+    }
+
+    public Effect<Done> book(String slotId) {
+        var schedule = currentState();
+        var hour = hourOf(slotId);
+        schedule.remove(schedule.available(), schedule.availableSlots(), hour, slotId);
+        schedule.add(schedule.booked(), schedule.bookedSlots(), hour, slotId);
+        return effects().updateState(schedule).thenReply(Done.getInstance());
+    }
+
+    public Effect<Done> cancel(String slotId) {
+        var schedule = currentState();
+        schedule.remove(schedule.booked(), schedule.bookedSlots(), hourOf(slotId), slotId);
+        return effects().updateState(schedule).thenReply(Done.getInstance());
+    }
+
+    private static long hourOf(String slotId) {
+        return SlotKey.parse(slotId).epochHour();
+    }
+
+    public Effect<Boolean> isBookedAt(Long hour) {
+        return effects().reply(currentState().booked().isSet(hour));
+    }
+
+    public Effect<Boolean> isBookedWithin(HourRange range) {
+        return effects().reply(currentState().booked().anySet(range.fromHour(), range.toHour()));
+    }
+
+    // The booked hours in [fromHour, toHour), so a range of slots is checked in one call
+    public Effect<List<Long>> bookedHoursWithin(HourRange range) {
+        return effects().reply(currentState().booked().hoursSet(range.fromHour(), range.toHour()));
+    }
+
+    @Override
+    public Schedule emptyState() {
+        return new Schedule(HourBitmap.empty(), HourBitmap.empty(), Map.of(), Map.of());
+    }
+}
@@ -3,9 +3,12 @@ package io.example.application;
 import akka.Done;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Migration;
 import akka.javasdk.annotations.TypeName;
 import akka.javasdk.eventsourcedentity.EventSourcedEntity;
+import com.fasterxml.jackson.annotation.JsonAlias;
 import io.example.domain.BookingEvent;
+import io.example.domain.CompactEventMigration;
 import io.example.domain.Participant.ParticipantType;
 import io.example.domain.Timeslot;
 
@@ -69,26 +72,44 @@ public class ParticipantSlotEntity
         }
     }
 
+    // Fields are read under their short names as well, ahead of storing them that way, see
+    // CompactEventMigration
     public sealed interface Event {
         @TypeName("marked-available")
-        record MarkedAvailable(String slotId, String participantId, ParticipantType participantType)
+        @Migration(CompactEventMigration.class)
+        record MarkedAvailable(
+                @JsonAlias("s") String slotId,
+                @JsonAlias("p") String participantId,
+                @JsonAlias("t") ParticipantType participantType)
                 implements Event {
         }
 
         @TypeName("unmarked-available")
-        record UnmarkedAvailable(String slotId, String participantId, ParticipantType participantType)
+        @Migration(CompactEventMigration.class)
+        record UnmarkedAvailable(
+                @JsonAlias("s") String slotId,
+                @JsonAlias("p") String participantId,
+                @JsonAlias("t") ParticipantType participantType)
                 implements Event {
         }
 
         @TypeName("participant-booked")
+        @Migration(CompactEventMigration.class)
         record Booked(
-                String slotId, String participantId, ParticipantType participantType, String bookingId)
+                @JsonAlias("s") String slotId,
+                @JsonAlias("p") String participantId,
+                @JsonAlias("t") ParticipantType participantType,
+                @JsonAlias("b") String bookingId)
                 implements Event {
         }
 
         @TypeName("participant-canceled")
+        @Migration(CompactEventMigration.class)
         record Canceled(
-                String slotId, String participantId, ParticipantType participantType, String bookingId)
+                @JsonAlias("s") String slotId,
+                @JsonAlias("p") String participantId,
+                @JsonAlias("t") ParticipantType participantType,
+                @JsonAlias("b") String bookingId)
                 implements Event {
         }
     }
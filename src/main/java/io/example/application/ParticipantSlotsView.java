@@ -9,21 +9,36 @@ import io.example.application.ParticipantSlotEntity.Event.Booked;
 import io.example.application.ParticipantSlotEntity.Event.Canceled;
 import io.example.application.ParticipantSlotEntity.Event.MarkedAvailable;
 import io.example.application.ParticipantSlotEntity.Event.UnmarkedAvailable;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-@Component(id = "view-participant-slots")
+// Projected straight from the ParticipantSlotEntity journal. Changing the table or its queries
+// reprojects that journal, not the BookingSlotEntity journal through SlotToParticipantConsumer.
+// To keep serving reads during a long rebuild, deploy the changed view under a new component ID
+// next to this one (tracked with its own ViewProjectionMetrics), move the queries over once
+// /metrics/views reports it caughtUp on every instance, then remove this one.
+//
+// This is the second such view: the updatedAt column and the streaming queries were added under
+// a new component ID, while ParticipantSlotsViewV1 keeps serving /slots until this one has
+// caught up (see flight-endpoint.slots-view).
+@Component(id = "view-participant-slots-v2")
 public class ParticipantSlotsView extends View {
 
     private static Logger logger = LoggerFactory.getLogger(ParticipantSlotsView.class);
+    private static final ViewProjectionMetrics metrics =
+            ViewProjectionMetrics.forView("view-participant-slots-v2");
 
     @Consume.FromEventSourcedEntity(ParticipantSlotEntity.class)
     public static class ParticipantSlotsViewUpdater extends TableUpdater<SlotRow> {
 
         public Effect<SlotRow> onEvent(ParticipantSlotEntity.Event event) {
-            // Supply your own implementation
-            System.out.println("VIEW: ParticipantSlotsViewUpdater event: "+ event);
+            // Runs once per event for the whole journal when the view is rebuilt, so it only
+            // logs when something is wrong
+            var eventTime = updateContext().metadata().asCloudEvent().time().map(ZonedDateTime::toInstant).orElse(null);
+            metrics.recordEvent(eventTime);
             return switch (event) {
 
                 case ParticipantSlotEntity.Event.MarkedAvailable e -> {
@@ -32,7 +47,8 @@ public class ParticipantSlotsView extends View {
                             e.participantId(),
                             e.participantType().toString(),
                             "",
-                            "AVAILABLE"
+                            "AVAILABLE",
+                            eventTime
                     );
                     yield effects().updateRow(row);
                 }
@@ -43,7 +59,7 @@ public class ParticipantSlotsView extends View {
                         logger.warn("No existing row for slotId {} when processing UnmarkedAvailable — ignoring", e.slotId());
                         yield effects().ignore();
                     } else {
-                        yield effects().updateRow(current.withStatus("UNAVAILABLE"));
+                        yield effects().updateRow(current.withStatus("UNAVAILABLE").withUpdatedAt(eventTime));
                     }
                 }
 
@@ -53,7 +69,7 @@ public class ParticipantSlotsView extends View {
                         logger.warn("No existing row for slotId {} when processing Booked — ignoring", e.slotId());
                         yield effects().ignore();
                     } else {
-                        yield effects().updateRow(current.withBookingId(e.bookingId()).withStatus("BOOKED"));
+                        yield effects().updateRow(current.withBookingId(e.bookingId()).withStatus("BOOKED").withUpdatedAt(eventTime));
                     }
                 }
 
@@ -63,30 +79,39 @@ public class ParticipantSlotsView extends View {
                         logger.warn("No existing row for slotId {} when processing Canceled — ignoring", e.slotId());
                         yield effects().ignore();
                     } else {
-                        yield effects().updateRow(current.withStatus("CANCELLED"));
+                        yield effects().updateRow(current.withStatus("CANCELLED").withUpdatedAt(eventTime));
                     }
                 }
             };
         }
     }
 
+    // updatedAt is the time of the last event applied to the row, as recorded by the entity
     public record SlotRow(
             String slotId,
             String participantId,
             String participantType,
             String bookingId,
-            String status) {
+            String status,
+            Instant updatedAt) {
         public SlotRow withStatus(String status) {
-            return new SlotRow(slotId, participantId, participantType, bookingId, status);
+            return new SlotRow(slotId, participantId, participantType, bookingId, status, updatedAt);
         }
         public SlotRow withBookingId(String bookingId) {
-            return new SlotRow(slotId, participantId, participantType, bookingId, status);
+            return new SlotRow(slotId, participantId, participantType, bookingId, status, updatedAt);
+        }
+        public SlotRow withUpdatedAt(Instant updatedAt) {
+            return new SlotRow(slotId, participantId, participantType, bookingId, status, updatedAt);
         }
     }
 
     public record ParticipantStatusInput(String participantId, String status) {
     }
-    public record BookingStatusInput(String bookingId, String status) {
+    public record SlotParticipantInput(String slotId, String participantId) {
+    }
+    public record SlotRangeInput(String fromSlotId, String toSlotId) {
+    }
+    public record SlotRangeStatusInput(String fromSlotId, String toSlotId, String status) {
     }
     public record SlotList(List<SlotRow> slots) {
     }
@@ -101,8 +126,32 @@ public class ParticipantSlotsView extends View {
         return queryResult();
     }
 
-    @Query("SELECT * AS slots FROM slots WHERE bookingId = :bookingId AND status = :status")
-    public QueryEffect<SlotList> getsParticipantsByBookingIdAndStatus(BookingStatusInput input) {
+    // At most one row, the participant's status in the slot
+    @Query("SELECT * AS slots FROM slots WHERE slotId = :slotId AND participantId = :participantId")
+    public QueryEffect<SlotList> getSlotRow(SlotParticipantInput input) {
         return queryResult();
     }
+
+    // Emits the participant's current rows, then every row that changes afterwards
+    @Query(value = "SELECT * FROM slots WHERE participantId = :participantId", streamUpdates = true)
+    public QueryStreamEffect<SlotRow> streamSlotsByParticipant(String participantId) {
+        return queryStreamResult();
+    }
+
+    // Every row with a slot ID in [fromSlotId, toSlotId], streamed rather than collected into
+    // one SlotList. Canonical slot IDs of one airfield share a prefix, so a range over them is a
+    // range of hours at that airfield.
+    @Query("SELECT * FROM slots WHERE slotId >= :fromSlotId AND slotId <= :toSlotId ORDER BY slotId")
+    public QueryStreamEffect<SlotRow> streamSlotsInRange(SlotRangeInput input) {
+        return queryStreamResult();
+    }
+
+    @Query("""
+            SELECT * FROM slots
+            WHERE slotId >= :fromSlotId AND slotId <= :toSlotId AND status = :status
+            ORDER BY slotId
+            """)
+    public QueryStreamEffect<SlotRow> streamSlotsInRangeWithStatus(SlotRangeStatusInput input) {
+        return queryStreamResult();
+    }
 }
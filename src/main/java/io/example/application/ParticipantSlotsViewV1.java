@@ -0,0 +1,98 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// The participant slots view as first deployed, kept under its component ID with its table and
+// queries unchanged so it is not rebuilt, and serving /slots while ParticipantSlotsView (which
+// adds the updatedAt column and the streaming queries under a new component ID) projects the
+// journal for the first time. Once /metrics/views reports view-participant-slots-v2 caughtUp on
+// every instance, set flight-endpoint.slots-view to "v2"; the release after that removes this
+// view. Do not change its table or queries in the meantime.
+@Component(id = "view-participant-slots")
+public class ParticipantSlotsViewV1 extends View {
+
+    private static Logger logger = LoggerFactory.getLogger(ParticipantSlotsViewV1.class);
+    private static final ViewProjectionMetrics metrics =
+            ViewProjectionMetrics.forView("view-participant-slots");
+
+    @Consume.FromEventSourcedEntity(ParticipantSlotEntity.class)
+    public static class ParticipantSlotsViewV1Updater extends TableUpdater<SlotRow> {
+
+        public Effect<SlotRow> onEvent(ParticipantSlotEntity.Event event) {
+            metrics.recordEvent(updateContext().metadata().asCloudEvent().time().map(ZonedDateTime::toInstant).orElse(null));
+            return switch (event) {
+
+                case ParticipantSlotEntity.Event.MarkedAvailable e -> effects().updateRow(new SlotRow(
+                        e.slotId(),
+                        e.participantId(),
+                        e.participantType().toString(),
+                        "",
+                        "AVAILABLE"));
+
+                case ParticipantSlotEntity.Event.UnmarkedAvailable e -> update(e.slotId(), rowState(), "UNAVAILABLE", null);
+
+                case ParticipantSlotEntity.Event.Booked e -> update(e.slotId(), rowState(), "BOOKED", e.bookingId());
+
+                case ParticipantSlotEntity.Event.Canceled e -> update(e.slotId(), rowState(), "CANCELLED", null);
+            };
+        }
+
+        private Effect<SlotRow> update(String slotId, SlotRow current, String status, String bookingId) {
+            if (current == null) {
+                logger.warn("No existing row for slotId {} when setting status {} — ignoring", slotId, status);
+                return effects().ignore();
+            }
+            var row = bookingId == null ? current : current.withBookingId(bookingId);
+            return effects().updateRow(row.withStatus(status));
+        }
+    }
+
+    public record SlotRow(
+            String slotId,
+            String participantId,
+            String participantType,
+            String bookingId,
+            String status) {
+        public SlotRow withStatus(String status) {
+            return new SlotRow(slotId, participantId, participantType, bookingId, status);
+        }
+        public SlotRow withBookingId(String bookingId) {
+            return new SlotRow(slotId, participantId, participantType, bookingId, status);
+        }
+
+        // The row as ParticipantSlotsView has it, without the time of the last update
+        public ParticipantSlotsView.SlotRow toCurrent() {
+            return new ParticipantSlotsView.SlotRow(slotId, participantId, participantType, bookingId, status, null);
+        }
+    }
+
+    public record ParticipantStatusInput(String participantId, String status) {
+    }
+    public record BookingStatusInput(String bookingId, String status) {
+    }
+    public record SlotList(List<SlotRow> slots) {
+    }
+
+    @Query("SELECT * AS slots FROM slots WHERE participantId = :participantId")
+    public QueryEffect<SlotList> getSlotsByParticipant(String participantId) {
+        return queryResult();
+    }
+
+    @Query("SELECT * AS slots FROM slots WHERE participantId = :participantId AND status = :status")
+    public QueryEffect<SlotList> getSlotsByParticipantAndStatus(ParticipantStatusInput input) {
+        return queryResult();
+    }
+
+    @Query("SELECT * AS slots FROM slots WHERE bookingId = :bookingId AND status = :status")
+    public QueryEffect<SlotList> getsParticipantsByBookingIdAndStatus(BookingStatusInput input) {
+        return queryResult();
+    }
+}
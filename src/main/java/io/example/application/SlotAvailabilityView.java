@@ -0,0 +1,109 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.SlotKey;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// One row per booking slot listing who is still available in it, by participant type. Fed
+// straight from the BookingSlotEntity events, so matching students with instructors and
+// aircraft over a time range is a single indexed query instead of one entity read per slot.
+@Component(id = "view-slot-availability")
+public class SlotAvailabilityView extends View {
+
+    private static final ViewProjectionMetrics metrics =
+            ViewProjectionMetrics.forView("view-slot-availability");
+
+    @Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+    public static class SlotAvailabilityUpdater extends TableUpdater<AvailabilityRow> {
+
+        public Effect<AvailabilityRow> onEvent(BookingEvent event) {
+            metrics.recordEvent(updateContext().metadata().asCloudEvent().time().map(ZonedDateTime::toInstant).orElse(null));
+            return switch (event) {
+                case BookingEvent.ParticipantMarkedAvailable e ->
+                        effects().updateRow(row(e.slotId()).with(e.participantId(), e.participantType()));
+                case BookingEvent.ParticipantUnmarkedAvailable e ->
+                        effects().updateRow(row(e.slotId()).without(e.participantId(), e.participantType()));
+                case BookingEvent.ParticipantBooked e ->
+                        effects().updateRow(row(e.slotId()).without(e.participantId(), e.participantType()));
+                case BookingEvent.BookingConfirmed e -> {
+                    var row = row(e.slotId());
+                    for (Participant p : e.participants()) {
+                        row = row.without(p.id(), p.participantType());
+                    }
+                    yield effects().updateRow(row);
+                }
+                // canceling does not make participants available again
+                case BookingEvent.ParticipantCanceled e -> effects().ignore();
+                case BookingEvent.BookingCanceled e -> effects().ignore();
+            };
+        }
+
+        private AvailabilityRow row(String slotId) {
+            var current = rowState();
+            if (current != null) return current;
+            var slot = SlotKey.parse(slotId);
+            return new AvailabilityRow(slotId, slot.airfield(), slot.epochHour(), List.of(), List.of(), List.of());
+        }
+    }
+
+    public record AvailabilityRow(
+            String slotId,
+            String airfield,
+            long epochHour,
+            List<String> students,
+            List<String> instructors,
+            List<String> aircraft) {
+
+        public AvailabilityRow with(String participantId, ParticipantType type) {
+            return switch (type) {
+                case STUDENT -> new AvailabilityRow(slotId, airfield, epochHour, added(students, participantId), instructors, aircraft);
+                case INSTRUCTOR -> new AvailabilityRow(slotId, airfield, epochHour, students, added(instructors, participantId), aircraft);
+                case AIRCRAFT -> new AvailabilityRow(slotId, airfield, epochHour, students, instructors, added(aircraft, participantId));
+            };
+        }
+
+        public AvailabilityRow without(String participantId, ParticipantType type) {
+            return switch (type) {
+                case STUDENT -> new AvailabilityRow(slotId, airfield, epochHour, removed(students, participantId), instructors, aircraft);
+                case INSTRUCTOR -> new AvailabilityRow(slotId, airfield, epochHour, students, removed(instructors, participantId), aircraft);
+                case AIRCRAFT -> new AvailabilityRow(slotId, airfield, epochHour, students, instructors, removed(aircraft, participantId));
+            };
+        }
+
+        private static List<String> added(List<String> ids, String id) {
+            if (ids.contains(id)) return ids;
+            var all = new ArrayList<>(ids);
+            all.add(id);
+            return all;
+        }
+
+        private static List<String> removed(List<String> ids, String id) {
+            return ids.stream().filter(existing -> !existing.equals(id)).toList();
+        }
+    }
+
+    public record StudentRangeInput(String studentId, long fromHour, long toHour) {
+    }
+    public record AvailabilityList(List<AvailabilityRow> slots) {
+    }
+
+    // Slots in [fromHour, toHour] (epoch hours) where the student is available
+    @Query("""
+            SELECT * AS slots FROM slot_availability
+            WHERE :studentId = ANY(students) AND epochHour >= :fromHour AND epochHour <= :toHour
+            ORDER BY epochHour
+            """)
+    public QueryEffect<AvailabilityList> getStudentSlots(StudentRangeInput input) {
+        return queryResult();
+    }
+}
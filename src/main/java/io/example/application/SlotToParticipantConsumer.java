@@ -1,10 +1,14 @@
 package io.example.application;
 
+import akka.Done;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.Consume;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.consumer.Consumer;
 import io.example.domain.BookingEvent;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,10 +28,9 @@ public class SlotToParticipantConsumer extends Consumer {
 
     public Effect onEvent(BookingEvent event) {
         // Supply your own implementation
-        var participantSlotId = participantSlotId(event);
         return switch (event) {
             case BookingEvent.ParticipantUnmarkedAvailable e:
-                client.forEventSourcedEntity(participantSlotId)
+                client.forEventSourcedEntity(participantSlotId(e.slotId(), e.participantId()))
                         .method(ParticipantSlotEntity::unmarkAvailable)
                         .invoke(new ParticipantSlotEntity.Commands.UnmarkAvailable(
                                 e.slotId(),
@@ -36,7 +39,7 @@ public class SlotToParticipantConsumer extends Consumer {
                         ));
                 yield effects().done();
             case BookingEvent.ParticipantMarkedAvailable e:
-                client.forEventSourcedEntity(participantSlotId)
+                client.forEventSourcedEntity(participantSlotId(e.slotId(), e.participantId()))
                         .method(ParticipantSlotEntity::markAvailable)
                         .invoke(new ParticipantSlotEntity.Commands.MarkAvailable(
                                 e.slotId(),
@@ -44,8 +47,10 @@ public class SlotToParticipantConsumer extends Consumer {
                                 e.participantType()
                         ));
                 yield effects().done();
+            // Per-participant booking events are only found in journals written before
+            // BookingConfirmed/BookingCanceled were introduced
             case BookingEvent.ParticipantBooked e:
-                client.forEventSourcedEntity(participantSlotId)
+                client.forEventSourcedEntity(participantSlotId(e.slotId(), e.participantId()))
                         .method(ParticipantSlotEntity::book)
                         .invoke(new ParticipantSlotEntity.Commands.Book(
                                 e.slotId(),
@@ -54,30 +59,56 @@ public class SlotToParticipantConsumer extends Consumer {
                                 e.bookingId()
                         ));
                 yield effects().done();
-                case BookingEvent.ParticipantCanceled e:
-                    client.forEventSourcedEntity(participantSlotId)
-                            .method(ParticipantSlotEntity::cancel)
-                            .invoke(new ParticipantSlotEntity.Commands.Cancel(
-                                    e.slotId(),
-                                    e.participantId(),
-                                    e.participantType(),
-                                    e.bookingId()
-                            ));
-                    yield effects().done();
+            case BookingEvent.ParticipantCanceled e:
+                client.forEventSourcedEntity(participantSlotId(e.slotId(), e.participantId()))
+                        .method(ParticipantSlotEntity::cancel)
+                        .invoke(new ParticipantSlotEntity.Commands.Cancel(
+                                e.slotId(),
+                                e.participantId(),
+                                e.participantType(),
+                                e.bookingId()
+                        ));
+                yield effects().done();
+            // Compound events fan out to each participant's slot entity concurrently
+            case BookingEvent.BookingConfirmed e:
+                awaitAll(e.participants().stream()
+                        .map(p -> client.forEventSourcedEntity(participantSlotId(e.slotId(), p.id()))
+                                .method(ParticipantSlotEntity::book)
+                                .invokeAsync(new ParticipantSlotEntity.Commands.Book(
+                                        e.slotId(),
+                                        p.id(),
+                                        p.participantType(),
+                                        e.bookingId()
+                                )))
+                        .toList());
+                yield effects().done();
+            case BookingEvent.BookingCanceled e:
+                awaitAll(e.participants().stream()
+                        .map(p -> client.forEventSourcedEntity(participantSlotId(e.slotId(), p.id()))
+                                .method(ParticipantSlotEntity::cancel)
+                                .invokeAsync(new ParticipantSlotEntity.Commands.Cancel(
+                                        e.slotId(),
+                                        p.id(),
+                                        p.participantType(),
+                                        e.bookingId()
+                                )))
+                        .toList());
+                yield effects().done();
         };
     }
 
+    private void awaitAll(List<CompletionStage<Done>> calls) {
+        CompletableFuture.allOf(calls.stream()
+                .map(CompletionStage::toCompletableFuture)
+                .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
     // Participant slots are keyed by a derived key made up of
     // {slotId}-{participantId}
     // We don't need the participant type here because the participant IDs
     // should always be unique/UUIDs
-    private String participantSlotId(BookingEvent event) {
-        return switch (event) {
-            case BookingEvent.ParticipantBooked evt -> evt.slotId() + "-" + evt.participantId();
-            case BookingEvent.ParticipantUnmarkedAvailable evt ->
-                evt.slotId() + "-" + evt.participantId();
-            case BookingEvent.ParticipantMarkedAvailable evt -> evt.slotId() + "-" + evt.participantId();
-            case BookingEvent.ParticipantCanceled evt -> evt.slotId() + "-" + evt.participantId();
-        };
+    private String participantSlotId(String slotId, String participantId) {
+        return slotId + "-" + participantId;
     }
 }
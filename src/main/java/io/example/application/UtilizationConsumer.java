@@ -0,0 +1,62 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.application.UtilizationEntity.Change;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.SlotKey;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+// Maintains the per participant, per day UtilizationEntity counters from booking slot events
+@Component(id = "utilization-consumer")
+@Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+public class UtilizationConsumer extends Consumer {
+
+    private final ComponentClient client;
+
+    public UtilizationConsumer(ComponentClient client) {
+        this.client = client;
+    }
+
+    public Effect onEvent(BookingEvent event) {
+        switch (event) {
+            case BookingEvent.ParticipantMarkedAvailable e ->
+                    apply(e.slotId(), e.participantId(), e.participantType(), Change.MARK, null).toCompletableFuture().join();
+            case BookingEvent.ParticipantUnmarkedAvailable e ->
+                    apply(e.slotId(), e.participantId(), e.participantType(), Change.UNMARK, null).toCompletableFuture().join();
+            case BookingEvent.ParticipantBooked e ->
+                    apply(e.slotId(), e.participantId(), e.participantType(), Change.BOOK, e.bookingId()).toCompletableFuture().join();
+            case BookingEvent.ParticipantCanceled e ->
+                    apply(e.slotId(), e.participantId(), e.participantType(), Change.CANCEL, e.bookingId()).toCompletableFuture().join();
+            case BookingEvent.BookingConfirmed e ->
+                    applyAll(e.slotId(), e.participants(), Change.BOOK, e.bookingId());
+            case BookingEvent.BookingCanceled e ->
+                    applyAll(e.slotId(), e.participants(), Change.CANCEL, e.bookingId());
+        }
+        return effects().done();
+    }
+
+    private void applyAll(String slotId, List<Participant> participants, Change change, String bookingId) {
+        CompletableFuture.allOf(participants.stream()
+                .map(p -> apply(slotId, p.id(), p.participantType(), change, bookingId).toCompletableFuture())
+                .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    private CompletionStage<Done> apply(String slotId, String participantId, ParticipantType type,
+                                        Change change, String bookingId) {
+        var slot = SlotKey.parse(slotId);
+        var day = slot.startTime().toLocalDate().toString();
+        return client.forKeyValueEntity(UtilizationEntity.entityId(participantId, day))
+                .method(UtilizationEntity::apply)
+                .invokeAsync(new UtilizationEntity.Apply(participantId, type, day, slot.entityId(), change, bookingId));
+    }
+}
@@ -0,0 +1,77 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import io.example.domain.Participant.ParticipantType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One participant's booked and available hours and cancellations on one (UTC) day, keyed by
+// "{participantId}|{yyyy-MM-dd}" and maintained by the UtilizationConsumer. Hours are counted per
+// slot, so the same hour at two airfields counts twice: available slots are kept as their slot
+// IDs, bookings by booking ID (with the slot booked) and cancellations as the canceled booking
+// IDs, so a redelivered event changes nothing. The UtilizationView indexes these for reports.
+@Component(id = "participant-utilization")
+public class UtilizationEntity extends KeyValueEntity<UtilizationEntity.State> {
+
+    public static String entityId(String participantId, String day) {
+        return participantId + "|" + day;
+    }
+
+    // bookings maps a booking ID to the slot ID it was made in
+    public record State(String participantId, String participantType, String day,
+                        List<String> availableSlots, Map<String, String> bookings, List<String> canceledBookings) {
+
+        public int bookedHourCount() {
+            return bookings.size();
+        }
+
+        public int availableHourCount() {
+            return availableSlots.size();
+        }
+    }
+
+    public enum Change {MARK, UNMARK, BOOK, CANCEL}
+
+    // slotId is canonical, bookingId is only needed to book and cancel
+    public record Apply(String participantId, ParticipantType participantType, String day, String slotId,
+                        Change change, String bookingId) {
+    }
+
+    public Effect<Done> apply(Apply cmd) {
+        var state = currentState();
+        var available = new ArrayList<>(state.availableSlots());
+        var bookings = new HashMap<>(state.bookings());
+        var canceled = new ArrayList<>(state.canceledBookings());
+        switch (cmd.change()) {
+            case MARK -> {
+                if (!available.contains(cmd.slotId())) available.add(cmd.slotId());
+            }
+            case UNMARK -> available.remove(cmd.slotId());
+            case BOOK -> {
+                available.remove(cmd.slotId());
+                bookings.put(cmd.bookingId(), cmd.slotId());
+            }
+            case CANCEL -> {
+                bookings.remove(cmd.bookingId());
+                if (!canceled.contains(cmd.bookingId())) canceled.add(cmd.bookingId());
+            }
+        }
+        var updated = new State(cmd.participantId(), cmd.participantType().toString(), cmd.day(),
+                available, bookings, canceled);
+        return effects().updateState(updated).thenReply(Done.getInstance());
+    }
+
+    public Effect<State> getUtilization() {
+        return effects().reply(currentState());
+    }
+
+    @Override
+    public State emptyState() {
+        return new State(null, null, null, List.of(), Map.of(), List.of());
+    }
+}
@@ -0,0 +1,72 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+
+import java.util.List;
+
+// Booked hours, available hours and cancellations per participant and day, with the day's
+// utilization (booked / (booked + available)), projected from the UtilizationEntity counters.
+// Answers a participant's utilization over a range of days, and the busiest participants of a
+// type on a day, each with one indexed query.
+@Component(id = "view-utilization")
+public class UtilizationView extends View {
+
+    @Consume.FromKeyValueEntity(UtilizationEntity.class)
+    public static class UtilizationUpdater extends TableUpdater<UtilizationRow> {
+
+        public Effect<UtilizationRow> onUpdate(UtilizationEntity.State state) {
+            int booked = state.bookedHourCount();
+            int available = state.availableHourCount();
+            double utilization = booked + available == 0 ? 0 : (double) booked / (booked + available);
+            return effects().updateRow(new UtilizationRow(
+                    state.participantId(),
+                    state.participantType(),
+                    state.day(),
+                    booked,
+                    available,
+                    state.canceledBookings().size(),
+                    utilization));
+        }
+    }
+
+    public record UtilizationRow(
+            String participantId,
+            String participantType,
+            String day,
+            int bookedHours,
+            int availableHours,
+            int cancellations,
+            double utilization) {
+    }
+
+    // Days are yyyy-MM-dd, so they compare in date order
+    public record ParticipantDaysInput(String participantId, String fromDay, String toDay) {
+    }
+    public record LeaderboardInput(String participantType, String day, int limit) {
+    }
+    public record UtilizationList(List<UtilizationRow> days) {
+    }
+
+    @Query("""
+            SELECT * AS days FROM utilization
+            WHERE participantId = :participantId AND day >= :fromDay AND day <= :toDay
+            ORDER BY day
+            """)
+    public QueryEffect<UtilizationList> getParticipantUtilization(ParticipantDaysInput input) {
+        return queryResult();
+    }
+
+    @Query("""
+            SELECT * AS days FROM utilization
+            WHERE participantType = :participantType AND day = :day
+            ORDER BY bookedHours DESC
+            LIMIT :limit
+            """)
+    public QueryEffect<UtilizationList> getLeaderboard(LeaderboardInput input) {
+        return queryResult();
+    }
+}
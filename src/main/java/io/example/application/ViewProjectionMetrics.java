@@ -0,0 +1,103 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Progress of view projections on this service instance, per view component ID: events
+// applied, the recent rate, and how far the view is behind the journal it projects. During a
+// rebuild (after a view's schema or queries change) the lag shows how much history is left to
+// project, and events/sec how fast it is going.
+//
+// The lag is measured in the view updater alone: when an event is applied, the time since the
+// event was persisted (its CloudEvent time). A view working through old history reports the age
+// of what it is applying; a caught-up view reports the projection delay of the last event, which
+// stays put while the view is idle instead of growing. As slices are projected in parallel and
+// out of time order, the snapshot reports the largest lag seen over the last rate window next to
+// the latest one. Event times are stamped by the instance that persisted the event, so clock
+// skew between instances adds to (or takes from) the figure.
+//
+// View updaters are created by the runtime and can't be handed a shared instance, so the metrics
+// live in a static registry, and they cover the updaters running on this instance only.
+public class ViewProjectionMetrics {
+
+    private static final Map<String, ViewProjectionMetrics> BY_VIEW = new ConcurrentHashMap<>();
+
+    private static final Duration RATE_WINDOW = Duration.ofSeconds(10);
+    // a view whose recent events were applied within this of being persisted counts as caught up
+    private static final Duration CAUGHT_UP_LAG = Duration.ofSeconds(5);
+
+    private final String view;
+    private long eventsApplied;
+    private long windowEvents;
+    private Instant windowStart = Instant.now();
+    private double eventsPerSecond;
+    private Instant newestEventTime;
+    private long lagMillis;
+    private long windowMaxLagMillis;
+    private long maxLagMillis;
+
+    private ViewProjectionMetrics(String view) {
+        this.view = view;
+    }
+
+    // The metrics of the view with the given component ID
+    public static ViewProjectionMetrics forView(String view) {
+        return BY_VIEW.computeIfAbsent(view, ViewProjectionMetrics::new);
+    }
+
+    public static Optional<Snapshot> snapshot(String view) {
+        return Optional.ofNullable(BY_VIEW.get(view)).map(ViewProjectionMetrics::snapshot);
+    }
+
+    public static List<Snapshot> snapshots() {
+        return BY_VIEW.values().stream()
+                .map(ViewProjectionMetrics::snapshot)
+                .sorted(Comparator.comparing(Snapshot::view))
+                .toList();
+    }
+
+    public record Snapshot(String view, long eventsApplied, double eventsPerSecond, Instant newestEventTime,
+                           long lagMillis, long maxLagMillis, boolean caughtUp) {
+    }
+
+    // eventTime is when the applied event was persisted, null if unknown
+    public synchronized void recordEvent(Instant eventTime) {
+        var now = Instant.now();
+        eventsApplied++;
+        windowEvents++;
+        if (eventTime != null) {
+            lagMillis = Math.max(0, Duration.between(eventTime, now).toMillis());
+            windowMaxLagMillis = Math.max(windowMaxLagMillis, lagMillis);
+            if (newestEventTime == null || eventTime.isAfter(newestEventTime)) {
+                newestEventTime = eventTime;
+            }
+        }
+
+        var elapsed = Duration.between(windowStart, now);
+        if (elapsed.compareTo(RATE_WINDOW) >= 0) {
+            eventsPerSecond = windowEvents * 1000.0 / elapsed.toMillis();
+            maxLagMillis = windowMaxLagMillis;
+            windowEvents = 0;
+            windowMaxLagMillis = 0;
+            windowStart = now;
+        }
+    }
+
+    public synchronized Snapshot snapshot() {
+        var now = Instant.now();
+        // nothing applied for a whole window means the projection is idle
+        boolean idle = Duration.between(windowStart, now).compareTo(RATE_WINDOW.multipliedBy(2)) >= 0;
+        var rate = idle ? 0 : eventsPerSecond;
+        // the largest lag over the last full window and the one in progress
+        var maxLag = idle ? lagMillis : Math.max(maxLagMillis, windowMaxLagMillis);
+        // An idle updater has applied everything the journal had for it. Its lag is that of the
+        // last event, which after a rebuild over a quiet journal is simply how old that event is.
+        return new Snapshot(view, eventsApplied, rate, newestEventTime, lagMillis, maxLag,
+                idle || maxLag <= CAUGHT_UP_LAG.toMillis());
+    }
+}
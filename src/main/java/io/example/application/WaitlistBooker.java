@@ -0,0 +1,123 @@
+package io.example.application;
+
+import akka.javasdk.CommandException;
+import akka.javasdk.client.ComponentClient;
+import io.example.application.WaitlistEntity.Intent;
+import io.example.domain.SlotKey;
+import io.example.domain.Timeslot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Books waitlisted intents for a slot whose participants are all available, oldest intent
+// first. An intent is booked under the same rules as POST /flight/bookings: nobody booked
+// elsewhere at that hour and flyable conditions. Intents that can't be booked yet stay on the
+// waitlist: those still waiting for a participant are looked at again on the next availability
+// change, those held back with everyone available are retried by the WaitlistRetrier. Once
+// the slot has started nothing is booked and its waitlist is expired.
+public class WaitlistBooker {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistBooker.class);
+
+    private final ComponentClient componentClient;
+    private final FlightConditionsClient conditionsClient;
+
+    public WaitlistBooker(ComponentClient componentClient, FlightConditionsClient conditionsClient) {
+        this.componentClient = componentClient;
+        this.conditionsClient = conditionsClient;
+    }
+
+    // The booking IDs booked by a run, and those held back although all their participants are
+    // available (a participant booked elsewhere at that hour, unflyable or unknown conditions)
+    public record Outcome(List<String> booked, List<String> held) {
+    }
+
+    public Outcome bookReady(String slotId) {
+        if (ForecastPrefetcher.hasStarted(slotId)) {
+            componentClient
+                    .forKeyValueEntity(slotId)
+                    .method(WaitlistEntity::expire)
+                    .invoke();
+            return new Outcome(List.of(), List.of());
+        }
+        var waitlist = componentClient
+                .forKeyValueEntity(slotId)
+                .method(WaitlistEntity::getWaitlist)
+                .invoke();
+        if (waitlist.intents().isEmpty()) return new Outcome(List.of(), List.of());
+
+        var booked = new ArrayList<String>();
+        var held = new ArrayList<String>();
+        var slot = getSlot(slotId);
+        for (Intent intent : waitlist.intents()) {
+            // already booked on an earlier run that failed before the intent was removed
+            if (!slot.findBooking(intent.bookingId()).isEmpty()) {
+                leave(slotId, intent.bookingId());
+                continue;
+            }
+            if (!slot.isBookable(intent.studentId(), intent.aircraftId(), intent.instructorId())) continue;
+            if (!canBook(slotId, intent)) {
+                held.add(intent.bookingId());
+                continue;
+            }
+
+            log.info("Booking waitlisted intent {} for slot {}", intent.bookingId(), slotId);
+            try {
+                componentClient
+                        .forEventSourcedEntity(slotId)
+                        .method(BookingSlotEntity::bookSlot)
+                        .invoke(new BookingSlotEntity.Command.BookReservation(
+                                intent.studentId(), intent.aircraftId(), intent.instructorId(), intent.bookingId()));
+            } catch (CommandException e) {
+                // a booking made since the slot was read took a participant
+                log.info("Waitlisted intent {} for slot {} was rejected: {}", intent.bookingId(), slotId, e.getMessage());
+                held.add(intent.bookingId());
+                slot = getSlot(slotId);
+                continue;
+            }
+            leave(slotId, intent.bookingId());
+            booked.add(intent.bookingId());
+            // the booked participants are no longer available to later intents
+            slot = getSlot(slotId);
+        }
+        return new Outcome(booked, held);
+    }
+
+    private boolean canBook(String slotId, Intent intent) {
+        var hour = SlotKey.parse(slotId).epochHour();
+        var conflicted = Stream.of(intent.studentId(), intent.aircraftId(), intent.instructorId())
+                .anyMatch(participantId -> componentClient
+                        .forKeyValueEntity(participantId)
+                        .method(ParticipantScheduleEntity::isBookedAt)
+                        .invoke(hour));
+        if (conflicted) {
+            log.info("Waitlisted intent {} for slot {} has a participant booked elsewhere at this hour", intent.bookingId(), slotId);
+            return false;
+        }
+
+        var verdict = conditionsClient.check(slotId);
+        if (!verdict.isKnown() || !verdict.report().meetsRequirements()) {
+            log.info("Waitlisted intent {} for slot {} held back by flight conditions: {}",
+                    intent.bookingId(), slotId, verdict.report().justification());
+            return false;
+        }
+        return true;
+    }
+
+    private Timeslot getSlot(String slotId) {
+        return componentClient
+                .forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::getSlot)
+                .invoke();
+    }
+
+    private void leave(String slotId, String bookingId) {
+        componentClient
+                .forKeyValueEntity(slotId)
+                .method(WaitlistEntity::leave)
+                .invoke(bookingId);
+    }
+}
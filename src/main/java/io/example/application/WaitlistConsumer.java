@@ -0,0 +1,50 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import com.typesafe.config.Config;
+import io.example.domain.BookingEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+// Books waitlisted intents as soon as their participants become available, so students don't
+// have to keep retrying POST /flight/bookings until everyone has marked themselves available
+@Component(id = "waitlist-consumer")
+@Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+public class WaitlistConsumer extends Consumer {
+
+    private final ComponentClient client;
+    private final WaitlistBooker booker;
+    private final Duration retryInterval;
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    // The conditions client is the shared instance provided by Bootstrap
+    public WaitlistConsumer(ComponentClient client, FlightConditionsClient conditionsClient, Config config) {
+        this.client = client;
+        this.booker = new WaitlistBooker(client, conditionsClient);
+        this.retryInterval = config.getDuration("waitlist.retry-interval");
+    }
+
+    public Effect onEvent(BookingEvent event) {
+        return switch (event) {
+            case BookingEvent.ParticipantMarkedAvailable e -> {
+                var outcome = booker.bookReady(e.slotId());
+                if (!outcome.booked().isEmpty()) {
+                    logger.info("Booked waitlisted intents {} for slot {}", outcome.booked(), e.slotId());
+                }
+                if (!outcome.held().isEmpty()) {
+                    WaitlistRetrier.scheduleRetry(timers(), client, e.slotId(), retryInterval);
+                }
+                yield effects().done();
+            }
+            // canceling does not make participants available again, they mark themselves
+            // available afresh, which is when waiting intents are looked at. Intents held back by
+            // a booking elsewhere or by the weather are retried by the WaitlistRetrier.
+            default -> effects().ignore();
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Booking intents waiting for their participants to become available in a slot, oldest first.
+// Keyed by slot ID. The WaitlistConsumer books an intent as soon as all three of its
+// participants are available, see WaitlistBooker. Intents expire when the slot starts: the
+// waitlist no longer takes new ones, reads as empty, and is deleted by the WaitlistRetrier.
+@Component(id = "booking-waitlist")
+public class WaitlistEntity extends KeyValueEntity<WaitlistEntity.State> {
+
+    public record Intent(String bookingId, String studentId, String aircraftId, String instructorId) {
+    }
+
+    public record State(List<Intent> intents) {
+        public State with(Intent intent) {
+            if (intents.stream().anyMatch(i -> i.bookingId().equals(intent.bookingId()))) return this;
+            var all = new ArrayList<>(intents);
+            all.add(intent);
+            return new State(all);
+        }
+
+        public State without(String bookingId) {
+            return new State(intents.stream().filter(i -> !i.bookingId().equals(bookingId)).toList());
+        }
+    }
+
+    public Effect<Done> join(Intent intent) {
+        if (hasStarted()) {
+            return effects().error("Slot " + commandContext().entityId() + " has started");
+        }
+        return effects()
+                .updateState(currentState().with(intent))
+                .thenReply(Done.getInstance());
+    }
+
+    public Effect<Done> leave(String bookingId) {
+        return effects()
+                .updateState(currentState().without(bookingId))
+                .thenReply(Done.getInstance());
+    }
+
+    public Effect<State> getWaitlist() {
+        return effects().reply(hasStarted() ? emptyState() : currentState());
+    }
+
+    // Drops every intent once the slot has started, nothing can be booked in it any more
+    public Effect<Done> expire() {
+        if (!hasStarted()) {
+            return effects().reply(Done.getInstance());
+        }
+        return effects().deleteEntity().thenReply(Done.getInstance());
+    }
+
+    private boolean hasStarted() {
+        return ForecastPrefetcher.hasStarted(commandContext().entityId());
+    }
+
+    @Override
+    public State emptyState() {
+        return new State(List.of());
+    }
+}
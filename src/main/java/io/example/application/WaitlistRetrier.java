@@ -0,0 +1,91 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import akka.javasdk.timer.TimerScheduler;
+import com.typesafe.config.Config;
+import io.example.domain.SlotKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+// Retries waitlisted intents that were held back although all their participants are available:
+// a participant booked elsewhere at that hour, or flight conditions that were unflyable or
+// unknown. Neither clearing up produces an event on the slot, so such intents are looked at
+// again on a timer, every retry-interval until none is held back or the slot has started.
+//
+// Also makes the first booking attempt for an intent joined through POST /flight/waitlist, on a
+// timer due straight away, so the request doesn't wait for a conditions check, and expires the
+// slot's waitlist on a timer due when the slot starts.
+@Component(id = "waitlist-retrier")
+public class WaitlistRetrier extends TimedAction {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistRetrier.class);
+
+    private final ComponentClient componentClient;
+    private final WaitlistBooker booker;
+    private final Duration retryInterval;
+
+    public WaitlistRetrier(ComponentClient componentClient, FlightConditionsClient conditionsClient, Config config) {
+        this.componentClient = componentClient;
+        this.booker = new WaitlistBooker(componentClient, conditionsClient);
+        this.retryInterval = config.getDuration("waitlist.retry-interval");
+    }
+
+    public static String timerName(String slotId) {
+        return "waitlist-retry-" + slotId;
+    }
+
+    public static String expiryTimerName(String slotId) {
+        return "waitlist-expiry-" + slotId;
+    }
+
+    // Schedules the expiry of the slot's waitlist for when the slot starts
+    public static void scheduleExpiry(TimerScheduler timers, ComponentClient componentClient, String slotId) {
+        var untilStart = Duration.between(Instant.now(), SlotKey.parse(slotId).startTime().toInstant(ZoneOffset.UTC));
+        timers.createSingleTimer(
+                expiryTimerName(slotId),
+                untilStart.isNegative() ? Duration.ZERO : untilStart,
+                componentClient.forTimedAction()
+                        .method(WaitlistRetrier::expire)
+                        .deferred(slotId));
+    }
+
+    // Schedules a retry of the slot's waitlist, replacing any retry already scheduled for it
+    public static void scheduleRetry(TimerScheduler timers, ComponentClient componentClient, String slotId, Duration delay) {
+        timers.createSingleTimer(
+                timerName(slotId),
+                delay,
+                componentClient.forTimedAction()
+                        .method(WaitlistRetrier::retry)
+                        .deferred(slotId));
+    }
+
+    public Effect retry(String slotId) {
+        if (ForecastPrefetcher.hasStarted(slotId)) {
+            log.info("Slot {} has started, no longer retrying its waitlist", slotId);
+            return expire(slotId);
+        }
+
+        var outcome = booker.bookReady(slotId);
+        if (!outcome.booked().isEmpty()) {
+            log.info("Booked waitlisted intents {} for slot {} on retry", outcome.booked(), slotId);
+        }
+        if (!outcome.held().isEmpty()) {
+            scheduleRetry(timers(), componentClient, slotId, retryInterval);
+        }
+        return effects().done();
+    }
+
+    public Effect expire(String slotId) {
+        componentClient
+                .forKeyValueEntity(slotId)
+                .method(WaitlistEntity::expire)
+                .invoke();
+        return effects().done();
+    }
+}
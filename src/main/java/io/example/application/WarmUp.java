@@ -0,0 +1,159 @@
+package io.example.application;
+
+import akka.javasdk.JsonSupport;
+import akka.javasdk.client.ComponentClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.Config;
+import io.example.application.FlightConditionsAgent.ConditionsReport;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import io.example.domain.BookingEvent;
+import io.example.domain.HourBitmap;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.SlotKey;
+import io.example.domain.Timeslot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Exercises the booking path once the service starts, so the first real requests on a new node
+// don't pay for it: builds the Jackson (de)serializers for the types on that path, runs the
+// domain hot paths enough times for the JIT to compile them, opens the connections to the
+// weather and geocoding APIs, and makes one read of each kind the booking path makes through the
+// component client (slot entity, participant schedule, participant slots view). The reads use
+// IDs no real slot or participant has, so they find empty entities and no rows, and write
+// nothing. Run from Bootstrap.onStartup, see the warm-up config block.
+public class WarmUp {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUp.class);
+
+    public record Report(long codecMillis, long domainMillis, long componentMillis, long connectionMillis,
+                         long totalMillis) {
+    }
+
+    private static final String WARM_UP_SLOT = "warm-up:2099-01-01-12";
+    private static final String WARM_UP_PARTICIPANT = "warm-up-student";
+
+    private final ComponentClient componentClient;
+    private final GoogleWeatherService weatherService;
+    private final int iterations;
+    private final Duration connectTimeout;
+
+    // Takes the warm-up config block
+    public WarmUp(ComponentClient componentClient, GoogleWeatherService weatherService, Config settings) {
+        this.componentClient = componentClient;
+        this.weatherService = weatherService;
+        this.iterations = settings.getInt("iterations");
+        this.connectTimeout = settings.getDuration("connect-timeout");
+    }
+
+    public Report run() {
+        long start = System.nanoTime();
+        // the connections are opened while the CPU bound steps run
+        var connection = Thread.ofVirtual().start(() -> weatherService.warmUpConnection(connectTimeout));
+
+        primeCodecs(JsonSupport.getObjectMapper());
+        long codecsDone = System.nanoTime();
+        primeDomain();
+        long domainDone = System.nanoTime();
+        primeComponentClient();
+        long componentsDone = System.nanoTime();
+        try {
+            // one after the other, each within connectTimeout
+            connection.join(connectTimeout.multipliedBy(2).plusSeconds(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long end = System.nanoTime();
+
+        var report = new Report(
+                millis(codecsDone - start),
+                millis(domainDone - codecsDone),
+                millis(componentsDone - domainDone),
+                millis(end - componentsDone),
+                millis(end - start));
+        log.info("Warm-up finished: {}", report);
+        return report;
+    }
+
+    private void primeCodecs(ObjectMapper mapper) {
+        var student = new Participant("warm-up-student", ParticipantType.STUDENT);
+        var samples = List.<Object>of(
+                sampleTimeslot(),
+                new SlotRow("2099-01-01-12", student.id(), student.participantType().toString(), "warm-up", "BOOKED", Instant.EPOCH),
+                new ConditionsReport("2099-01-01-12", true, "warm-up"),
+                new BookingEvent.ParticipantMarkedAvailable("2099-01-01-12", student.id(), student.participantType()),
+                new BookingEvent.BookingConfirmed("2099-01-01-12", "warm-up", List.of(student)),
+                new ForecastHour("2099-01-01-12", 15.0, 10.0, 20.0, 20.0, true, 0));
+        try {
+            for (int i = 0; i < Math.max(1, iterations / 100); i++) {
+                for (Object sample : samples) {
+                    mapper.readValue(mapper.writeValueAsBytes(sample), sample.getClass());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Codec warm-up failed: {}", e.toString());
+        }
+    }
+
+    private void primeDomain() {
+        var bitmap = HourBitmap.empty();
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            var slot = SlotKey.parse((i % 2 == 0 ? "" : "warm-up:") + "2099-01-01-" + String.format("%02d", i % 24));
+            long hour = slot.epochHour();
+            bitmap.set(hour);
+            if (bitmap.isSet(hour) && !bitmap.anySet(hour + 1, hour + 24)) checksum++;
+            bitmap.clear(hour);
+            if (sampleTimeslot().isBookable("warm-up-student", "warm-up-aircraft", "warm-up-instructor")) checksum++;
+            checksum += slot.entityId().length();
+        }
+        // keeps the loop from being optimised away
+        log.debug("Domain warm-up checksum {}", checksum);
+    }
+
+    // The reads run side by side; each failure is logged and doesn't hold up the others
+    private void primeComponentClient() {
+        var reads = List.of(
+                componentClient
+                        .forEventSourcedEntity(WARM_UP_SLOT)
+                        .method(BookingSlotEntity::getSlot)
+                        .invokeAsync(),
+                componentClient
+                        .forKeyValueEntity(WARM_UP_PARTICIPANT)
+                        .method(ParticipantScheduleEntity::isBookedAt)
+                        .invokeAsync(SlotKey.parse(WARM_UP_SLOT).epochHour()),
+                componentClient
+                        .forView()
+                        .method(ParticipantSlotsView::getSlotRow)
+                        .invokeAsync(new ParticipantSlotsView.SlotParticipantInput(WARM_UP_SLOT, WARM_UP_PARTICIPANT)));
+        for (var read : reads) {
+            try {
+                read.toCompletableFuture().get(connectTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Component client warm-up read failed: {}", e.toString());
+            }
+        }
+    }
+
+    private static Timeslot sampleTimeslot() {
+        Set<Participant> available = new HashSet<>(Set.of(
+                new Participant("warm-up-student", ParticipantType.STUDENT),
+                new Participant("warm-up-aircraft", ParticipantType.AIRCRAFT),
+                new Participant("warm-up-instructor", ParticipantType.INSTRUCTOR)));
+        return new Timeslot(new HashSet<>(), available);
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
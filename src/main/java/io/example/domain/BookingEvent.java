@@ -1,28 +1,66 @@
 package io.example.domain;
 
+import akka.javasdk.annotations.Migration;
 import akka.javasdk.annotations.TypeName;
+import com.fasterxml.jackson.annotation.JsonAlias;
 import io.example.domain.Participant.ParticipantType;
+import java.util.List;
 
-// The list of all events emitted by the BookingSlotEntity
+// The list of all events emitted by the BookingSlotEntity. Fields are read under their short
+// names as well, ahead of storing them that way, see CompactEventMigration.
 public sealed interface BookingEvent {
 
   @TypeName("slot-reserved")
+  @Migration(CompactEventMigration.class)
   record ParticipantMarkedAvailable(
-      String slotId, String participantId, ParticipantType participantType)
+      @JsonAlias("s") String slotId,
+      @JsonAlias("p") String participantId,
+      @JsonAlias("t") ParticipantType participantType)
       implements BookingEvent {}
 
   @TypeName("slot-unreserved")
+  @Migration(CompactEventMigration.class)
   record ParticipantUnmarkedAvailable(
-      String slotId, String participantId, ParticipantType participantType)
+      @JsonAlias("s") String slotId,
+      @JsonAlias("p") String participantId,
+      @JsonAlias("t") ParticipantType participantType)
       implements BookingEvent {}
 
   @TypeName("reservation-booked")
+  @Migration(CompactEventMigration.class)
   record ParticipantBooked(
-      String slotId, String participantId, ParticipantType participantType, String bookingId)
+      @JsonAlias("s") String slotId,
+      @JsonAlias("p") String participantId,
+      @JsonAlias("t") ParticipantType participantType,
+      @JsonAlias("b") String bookingId)
       implements BookingEvent {}
 
   @TypeName("booking-participant-canceled")
+  @Migration(CompactEventMigration.class)
   record ParticipantCanceled(
-      String slotId, String participantId, ParticipantType participantType, String bookingId)
+      @JsonAlias("s") String slotId,
+      @JsonAlias("p") String participantId,
+      @JsonAlias("t") ParticipantType participantType,
+      @JsonAlias("b") String bookingId)
+      implements BookingEvent {}
+
+  // A whole booking (student, aircraft and instructor) in a single event. Replaces the three
+  // ParticipantBooked events per booking, which are still applied when replaying older journals.
+  @TypeName("booking-confirmed")
+  @Migration(CompactEventMigration.class)
+  record BookingConfirmed(
+      @JsonAlias("s") String slotId,
+      @JsonAlias("b") String bookingId,
+      @JsonAlias("ps") List<Participant> participants)
+      implements BookingEvent {}
+
+  // Cancellation of all participants of a booking in a single event. Replaces the three
+  // ParticipantCanceled events per booking, which are still applied when replaying older journals.
+  @TypeName("booking-canceled")
+  @Migration(CompactEventMigration.class)
+  record BookingCanceled(
+      @JsonAlias("s") String slotId,
+      @JsonAlias("b") String bookingId,
+      @JsonAlias("ps") List<Participant> participants)
       implements BookingEvent {}
 }
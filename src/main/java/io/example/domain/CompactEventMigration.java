@@ -0,0 +1,47 @@
+package io.example.domain;
+
+import akka.javasdk.JsonMigration;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Map;
+
+// Reader compatibility for short event field names, see FIELD_NAMES. This release saves no
+// journal bytes: events are still written with their full names, at version 0. It only makes
+// every field of the booking and participant slot events (and of the Participants nested in
+// them) accept its short name as well (@JsonAlias), and accepts version 1 events
+// (supportedForwardVersion).
+//
+// Nodes of different releases read each other's events during a rolling upgrade (and across
+// regions for longer), so writing short names is left to a later release, deployed once no node
+// runs anything older than this one: fields are then written under their short names
+// (@JsonProperty) with the full name as the alias, and currentVersion goes to 1. What that saves
+// is measured by CompactEventMigrationTest.
+//
+// The event types and their @TypeName identities are unchanged throughout.
+public class CompactEventMigration extends JsonMigration {
+
+  // Full field name -> short field name, for the events and the Participants nested in them
+  public static final Map<String, String> FIELD_NAMES =
+      Map.of(
+          "slotId", "s",
+          "participantId", "p",
+          "participantType", "t",
+          "bookingId", "b",
+          "participants", "ps",
+          "id", "i");
+
+  @Override
+  public int currentVersion() {
+    return 0;
+  }
+
+  @Override
+  public int supportedForwardVersion() {
+    return 1;
+  }
+
+  // Both versions differ only in field names, which the aliases take care of
+  @Override
+  public JsonNode transform(int fromVersion, JsonNode json) {
+    return json;
+  }
+}
@@ -0,0 +1,71 @@
+package io.example.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A sparse bitmap of hours, indexed by epoch hour (hours since 1970-01-01T00:00Z). Bits are
+// grouped into 64-bit words keyed by word index, so a participant's whole schedule costs a
+// few longs per bookable period and testing a single hour is one map lookup and a mask,
+// no matter how much history the participant has. Like the Timeslot, it updates its internal
+// map in place.
+public record HourBitmap(Map<Long, Long> words) {
+
+  public static HourBitmap empty() {
+    return new HourBitmap(new HashMap<>());
+  }
+
+  public HourBitmap set(long hour) {
+    words.merge(hour >> 6, bit(hour), (a, b) -> a | b);
+    return this;
+  }
+
+  public HourBitmap clear(long hour) {
+    Long word = words.get(hour >> 6);
+    if (word != null) {
+      long updated = word & ~bit(hour);
+      if (updated == 0L) {
+        words.remove(hour >> 6);
+      } else {
+        words.put(hour >> 6, updated);
+      }
+    }
+    return this;
+  }
+
+  public boolean isSet(long hour) {
+    Long word = words.get(hour >> 6);
+    return word != null && (word & bit(hour)) != 0L;
+  }
+
+  // True if any hour in [fromHour, toHour) is set
+  public boolean anySet(long fromHour, long toHour) {
+    for (long index = fromHour >> 6; fromHour < toHour && index <= (toHour - 1) >> 6; index++) {
+      Long word = words.get(index);
+      if (word == null) continue;
+      long mask = -1L;
+      if (index == fromHour >> 6) mask &= -1L << (fromHour & 63);
+      if (index == (toHour - 1) >> 6) mask &= -1L >>> (63 - ((toHour - 1) & 63));
+      if ((word & mask) != 0L) return true;
+    }
+    return false;
+  }
+
+  // The hours in [fromHour, toHour) that are set, in order
+  public List<Long> hoursSet(long fromHour, long toHour) {
+    var hours = new ArrayList<Long>();
+    for (long index = fromHour >> 6; fromHour < toHour && index <= (toHour - 1) >> 6; index++) {
+      Long word = words.get(index);
+      if (word == null) continue;
+      for (long hour = Math.max(fromHour, index << 6); hour < Math.min(toHour, (index + 1) << 6); hour++) {
+        if ((word & bit(hour)) != 0L) hours.add(hour);
+      }
+    }
+    return hours;
+  }
+
+  private static long bit(long hour) {
+    return 1L << (hour & 63);
+  }
+}
@@ -1,8 +1,12 @@
 package io.example.domain;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+
 // A tuple-style class that holds a participant ID and the corresponding
-// type: student, instructor, or aircraft.
-public record Participant(String id, ParticipantType participantType) {
+// type: student, instructor, or aircraft. Nested in booking events, so its fields read their
+// short names as well, see CompactEventMigration.
+public record Participant(
+    @JsonAlias("i") String id, @JsonAlias("t") ParticipantType participantType) {
   public enum ParticipantType {
     STUDENT,
     INSTRUCTOR,
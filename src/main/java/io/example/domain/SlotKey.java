@@ -0,0 +1,52 @@
+package io.example.domain;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+// Identifies a bookable slot: one hour at one airfield. The slot ID (and so the booking slot
+// entity ID) is the airfield and the hour joined by a colon, e.g. "biggin-hill:2025-12-26-12".
+// Slots at the default airfield keep the bare hour as their ID, which is how every slot was
+// keyed before airfields were introduced, so existing journals remain addressable.
+public record SlotKey(String airfield, String hour) {
+
+  public static final String DEFAULT_AIRFIELD = "london";
+
+  private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
+  private static final Pattern AIRFIELD_PATTERN = Pattern.compile("[a-z0-9][a-z0-9-]*");
+
+  // Parses either "{airfield}:{yyyy-MM-dd-HH}" or a bare "{yyyy-MM-dd-HH}" (default airfield).
+  // Throws IllegalArgumentException when the slot ID is malformed.
+  public static SlotKey parse(String slotId) {
+    int separator = slotId.indexOf(':');
+    String airfield =
+        separator < 0 ? DEFAULT_AIRFIELD : slotId.substring(0, separator).trim().toLowerCase();
+    String hour = slotId.substring(separator + 1).trim();
+
+    if (!AIRFIELD_PATTERN.matcher(airfield).matches()) {
+      throw new IllegalArgumentException("Invalid airfield in slot ID: " + slotId);
+    }
+    try {
+      LocalDateTime.parse(hour, HOUR_FORMAT);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid hour in slot ID, expected yyyy-MM-dd-HH: " + slotId);
+    }
+    return new SlotKey(airfield, hour);
+  }
+
+  // The canonical slot ID, used as the booking slot entity ID
+  public String entityId() {
+    return DEFAULT_AIRFIELD.equals(airfield) ? hour : airfield + ":" + hour;
+  }
+
+  public LocalDateTime startTime() {
+    return LocalDateTime.parse(hour, HOUR_FORMAT);
+  }
+
+  // Hours since the epoch, the index used by HourBitmap. Slot hours are UTC.
+  public long epochHour() {
+    return startTime().toEpochSecond(ZoneOffset.UTC) / 3600;
+  }
+}
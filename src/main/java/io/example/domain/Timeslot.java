@@ -31,6 +31,15 @@ public record Timeslot(Set<Booking> bookings, Set<Participant> available) {
     return new Timeslot(bookings, available);
   }
 
+  public Timeslot book(BookingEvent.BookingConfirmed confirmed) {
+    for (Participant p : confirmed.participants()) {
+      available.remove(p);
+      bookings.add(new Booking(p, confirmed.bookingId()));
+    }
+
+    return new Timeslot(bookings, available);
+  }
+
   // Checks to see if the given participant is among those marked as available
   public boolean isWaiting(String participantId, ParticipantType participantType) {
     return available.contains(new Participant(participantId, participantType));
@@ -0,0 +1,51 @@
+package io.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsistencyTokenTest {
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        var token = ConsistencyToken.of(Instant.ofEpochMilli(4_070_908_800_000L), "biggin-hill:2099-01-01-12", "BOOKED",
+                "alice", "superplane", "superteacher");
+
+        var decoded = ConsistencyToken.decode(token.encode());
+
+        assertEquals(token, decoded);
+        assertEquals(3, decoded.expectations().size());
+        assertEquals(new ConsistencyToken.Expectation("biggin-hill:2099-01-01-12", "superplane", "BOOKED"),
+                decoded.expectations().get(1));
+    }
+
+    @Test
+    public void testTokenIsHeaderSafe() {
+        var encoded = ConsistencyToken.of(Instant.now(), "2099-01-01-12", "AVAILABLE", "alice").encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+    }
+
+    @Test
+    public void testTokenWithoutExpectations() {
+        var token = ConsistencyToken.of(Instant.ofEpochMilli(1_000L), "2099-01-01-12", "BOOKED");
+
+        assertEquals(token, ConsistencyToken.decode(token.encode()));
+    }
+
+    @Test
+    public void testMalformedTokensAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ConsistencyToken.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> ConsistencyToken.decode(encodeRaw("yesterday")));
+        assertThrows(IllegalArgumentException.class, () -> ConsistencyToken.decode(encodeRaw("1000\n2099-01-01-12\talice")));
+        assertThrows(IllegalArgumentException.class, () -> ConsistencyToken.decode(""));
+    }
+}
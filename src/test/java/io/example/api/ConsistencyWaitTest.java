@@ -0,0 +1,83 @@
+package io.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsistencyWaitTest {
+
+    private static final ConsistencyToken TOKEN = ConsistencyToken.of(Instant.now(), "2099-01-01-12", "BOOKED",
+            "alice", "superplane", "superteacher");
+
+    // A clock that only moves when a delay is taken, and runs the delayed poll straight away
+    private final AtomicLong nanos = new AtomicLong();
+    private final List<Duration> delays = new ArrayList<>();
+
+    private ConsistencyWait waitFor(Duration maxWait) {
+        return new ConsistencyWait(maxWait, nanos::get, delay -> {
+            delays.add(delay);
+            nanos.addAndGet(delay.toNanos());
+            return (Executor) Runnable::run;
+        });
+    }
+
+    @Test
+    public void testCaughtUpViewIsNotWaitedFor() {
+        var polls = new AtomicInteger();
+
+        var caughtUp = waitFor(Duration.ofSeconds(2))
+                .await(TOKEN, expected -> {
+                    polls.incrementAndGet();
+                    return CompletableFuture.completedFuture(true);
+                })
+                .toCompletableFuture().join();
+
+        assertTrue(caughtUp);
+        assertEquals(3, polls.get());
+        assertTrue(delays.isEmpty());
+    }
+
+    @Test
+    public void testPollsWithExponentialBackoffUntilShown() {
+        var polls = new AtomicInteger();
+
+        var caughtUp = waitFor(Duration.ofSeconds(2))
+                .await(TOKEN, expected -> CompletableFuture.completedFuture(
+                        !expected.participantId().equals("alice") || polls.incrementAndGet() > 3))
+                .toCompletableFuture().join();
+
+        assertTrue(caughtUp);
+        assertEquals(List.of(Duration.ofMillis(10), Duration.ofMillis(20), Duration.ofMillis(40)), delays);
+    }
+
+    @Test
+    public void testGivesUpAtTheDeadline() {
+        var caughtUp = waitFor(Duration.ofSeconds(1))
+                .await(TOKEN, expected -> CompletableFuture.completedFuture(false))
+                .toCompletableFuture().join();
+
+        assertFalse(caughtUp);
+        assertEquals(Duration.ofSeconds(1), delays.stream().reduce(Duration.ZERO, Duration::plus));
+        assertTrue(delays.stream().allMatch(delay -> delay.compareTo(ConsistencyWait.MAX_BACKOFF) <= 0), delays.toString());
+    }
+
+    @Test
+    public void testWaitsOnRealDelays() {
+        var polls = new AtomicInteger();
+
+        var result = new ConsistencyWait(Duration.ofSeconds(2))
+                .await(TOKEN, expected -> CompletableFuture.completedFuture(polls.incrementAndGet() > 2))
+                .toCompletableFuture();
+
+        assertTrue(result.join());
+    }
+}
@@ -0,0 +1,162 @@
+package io.example.api;
+
+import akka.http.javadsl.Http;
+import akka.http.javadsl.model.HttpRequest;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.headers.RawHeader;
+import akka.javasdk.JsonSupport;
+import akka.javasdk.testkit.TestKitSupport;
+import akka.stream.javadsl.Framing;
+import akka.stream.javadsl.FramingTruncation;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.SinkQueueWithCancel;
+import akka.util.ByteString;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Drives the streaming routes over HTTP. Slots are in 2099 so they are never in the past, and
+// each test uses its own participant or airfield so runs don't see each other's rows. The service
+// only starts with GOOGLE_API_KEY set, as application.conf refers to it.
+public class FlightEndpointIntegrationTest extends TestKitSupport {
+
+    private static final String DAY = "2099-03-01";
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "GOOGLE_API_KEY", matches = ".+")
+    public void testScheduleStreamSendsCurrentRowsThenUpdates() throws Exception {
+        var participantId = "student-" + UUID.randomUUID();
+        var firstSlot = "stream-test:" + DAY + "-10";
+        var secondSlot = "stream-test:" + DAY + "-11";
+
+        // The token makes the stream start once the view has the first row, so it comes first
+        var token = markAvailable(firstSlot, participantId);
+        var response = get("/flight/schedule/" + participantId + "/stream", token);
+        assertTrue(response.status().isSuccess(), response.status().toString());
+        assertEquals("text/event-stream", response.entity().getContentType().mediaType().toString());
+
+        SinkQueueWithCancel<SlotRow> events = response.entity().getDataBytes()
+                .via(Framing.delimiter(ByteString.fromString("\n"), 64 * 1024, FramingTruncation.ALLOW))
+                .map(ByteString::utf8String)
+                .filter(line -> line.startsWith("data:"))
+                .map(line -> JsonSupport.getObjectMapper().readValue(line.substring(5).trim(), SlotRow.class))
+                .runWith(Sink.queue(), testKit.getMaterializer());
+        try {
+            var initial = next(events);
+            assertEquals(firstSlot, initial.slotId());
+            assertEquals("AVAILABLE", initial.status());
+
+            markAvailable(secondSlot, participantId);
+            var pushed = next(events);
+            while (pushed.slotId().equals(firstSlot)) {
+                pushed = next(events); // the first row again, if the view re-emits it
+            }
+            assertEquals(secondSlot, pushed.slotId());
+            assertEquals(participantId, pushed.participantId());
+            assertEquals("AVAILABLE", pushed.status());
+        } finally {
+            events.cancel();
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "GOOGLE_API_KEY", matches = ".+")
+    public void testExportIsNewlineDelimitedAndFiltered() throws Exception {
+        var airfield = "export-" + UUID.randomUUID().toString().substring(0, 8);
+        var participantId = "student-" + UUID.randomUUID();
+        for (String hour : List.of("09", "10", "11", "13")) {
+            awaitView(participantId, markAvailable(airfield + ":" + DAY + "-" + hour, participantId));
+        }
+        awaitView(participantId, unmarkAvailable(airfield + ":" + DAY + "-10", participantId));
+
+        // 09 and 13 are outside the range, and 12 has no row
+        var all = export("/flight/export/" + airfield + "/" + DAY + "-10/" + DAY + "-12");
+        assertEquals(List.of(airfield + ":" + DAY + "-10", airfield + ":" + DAY + "-11"),
+                all.stream().map(SlotRow::slotId).toList());
+        assertEquals(List.of("UNAVAILABLE", "AVAILABLE"), all.stream().map(SlotRow::status).toList());
+
+        var available = export("/flight/export/" + airfield + "/" + DAY + "-09/" + DAY + "-13?status=available");
+        assertEquals(List.of(airfield + ":" + DAY + "-09", airfield + ":" + DAY + "-11", airfield + ":" + DAY + "-13"),
+                available.stream().map(SlotRow::slotId).toList());
+
+        assertEquals(List.of(), export("/flight/export/" + airfield + "/" + DAY + "-14/" + DAY + "-20"));
+    }
+
+    // Reads an export whole and checks its framing: one JSON object per line, each line ending
+    // in a newline, the last one included
+    private List<SlotRow> export(String path) throws Exception {
+        var response = get(path, null);
+        assertTrue(response.status().isSuccess(), response.status().toString());
+        assertEquals("application/x-ndjson", response.entity().getContentType().mediaType().toString());
+        var body = response.entity()
+                .toStrict(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS), testKit.getMaterializer())
+                .toCompletableFuture()
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .getData()
+                .utf8String();
+        if (body.isEmpty()) return List.of();
+
+        assertTrue(body.endsWith("\n"), body);
+        var rows = new ArrayList<SlotRow>();
+        for (String line : body.substring(0, body.length() - 1).split("\n", -1)) {
+            var json = JsonSupport.getObjectMapper().readTree(line);
+            assertTrue(json.isObject(), line);
+            rows.add(JsonSupport.getObjectMapper().treeToValue(json, SlotRow.class));
+        }
+        return rows;
+    }
+
+    // Waits until ParticipantSlotsView shows the write the token was issued for
+    private void awaitView(String participantId, String token) throws Exception {
+        get("/flight/slots/" + participantId + "/available", token)
+                .discardEntityBytes(testKit.getMaterializer())
+                .completionStage()
+                .toCompletableFuture()
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private String unmarkAvailable(String slotId, String participantId) {
+        var response = httpClient.DELETE("/flight/availability/" + slotId)
+                .withRequestBody(new FlightEndpoint.AvailabilityRequest(participantId, "student"))
+                .invoke();
+        assertTrue(response.status().isSuccess(), response.status().toString());
+        return response.httpResponse().getHeader(ConsistencyToken.HEADER).orElseThrow().value();
+    }
+
+    // Marks the participant available as a student and returns the consistency token
+    private String markAvailable(String slotId, String participantId) {
+        var response = httpClient.POST("/flight/availability/" + slotId)
+                .withRequestBody(new FlightEndpoint.AvailabilityRequest(participantId, "student"))
+                .invoke();
+        assertTrue(response.status().isSuccess(), response.status().toString());
+        return response.httpResponse().getHeader(ConsistencyToken.HEADER).orElseThrow().value();
+    }
+
+    // A plain Akka HTTP request, since the schedule stream never completes and can't be read
+    // whole. The token header is left out when there is none.
+    private HttpResponse get(String path, String token) throws Exception {
+        var request = HttpRequest.GET("http://" + testKit.getHost() + ":" + testKit.getPort() + path);
+        if (token != null) {
+            request = request.addHeader(RawHeader.create(ConsistencyToken.HEADER, token));
+        }
+        return Http.get(testKit.getActorSystem())
+                .singleRequest(request)
+                .toCompletableFuture()
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static <T> T next(SinkQueueWithCancel<T> queue) throws Exception {
+        return queue.pull()
+                .toCompletableFuture()
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .orElseThrow(() -> new AssertionError("Stream ended early"));
+    }
+}
@@ -0,0 +1,177 @@
+package io.example.api;
+
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCodes;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTest {
+
+    private static IdempotencyStore store(int maxEntries) {
+        return store(maxEntries, "10s");
+    }
+
+    private static IdempotencyStore store(int maxEntries, String joinTimeout) {
+        return new IdempotencyStore(ConfigFactory.parseString(
+                "ttl = 10m\nmax-entries = " + maxEntries + "\njoin-timeout = " + joinTimeout));
+    }
+
+    // Runs a request under the key that doesn't complete until release is counted down, and
+    // returns once it has started
+    private static CompletableFuture<HttpResponse> inFlight(IdempotencyStore store, String key, CountDownLatch release)
+            throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var original = CompletableFuture.supplyAsync(() -> store.execute(key, "request", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return HttpResponse.create().withStatus(StatusCodes.CREATED);
+        }));
+        started.await();
+        return original;
+    }
+
+    @Test
+    public void testRetryGetsOriginalResponse() {
+        var store = store(10);
+        var calls = new AtomicInteger();
+
+        var first = store.execute("bookings key1", "request", () -> {
+            calls.incrementAndGet();
+            return HttpResponse.create().withStatus(StatusCodes.CREATED);
+        });
+        var retry = store.execute("bookings key1", "request", () -> {
+            calls.incrementAndGet();
+            return HttpResponse.create().withStatus(StatusCodes.BAD_REQUEST);
+        });
+
+        assertEquals(1, calls.get());
+        assertSame(first, retry);
+    }
+
+    @Test
+    public void testRetryJoinsInFlightRequest() throws Exception {
+        var store = store(10);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var calls = new AtomicInteger();
+
+        var original = CompletableFuture.supplyAsync(() -> store.execute("bookings key1", "request", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return HttpResponse.create().withStatus(StatusCodes.CREATED);
+        }));
+        started.await();
+        var retry = CompletableFuture.supplyAsync(() -> store.execute("bookings key1", "request", () -> {
+            calls.incrementAndGet();
+            return HttpResponse.create().withStatus(StatusCodes.BAD_REQUEST);
+        }));
+        release.countDown();
+
+        assertEquals(StatusCodes.CREATED, retry.get().status());
+        assertSame(original.get(), retry.get());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testKeyReusedForDifferentRequestIsRejected() {
+        var store = store(10);
+        store.execute("bookings key1", "request", () -> HttpResponse.create().withStatus(StatusCodes.CREATED));
+
+        var other = store.execute("bookings key1", "other request", () -> HttpResponse.create().withStatus(StatusCodes.CREATED));
+
+        assertEquals(StatusCodes.UNPROCESSABLE_ENTITY, other.status());
+    }
+
+    @Test
+    public void testFailuresAreNotKept() {
+        var store = store(10);
+        var calls = new AtomicInteger();
+
+        store.execute("bookings key1", "request", () -> {
+            calls.incrementAndGet();
+            return HttpResponse.create().withStatus(StatusCodes.SERVICE_UNAVAILABLE);
+        });
+        store.execute("bookings key1", "request", () -> {
+            calls.incrementAndGet();
+            return HttpResponse.create().withStatus(StatusCodes.BAD_REQUEST);
+        });
+        assertThrows(IllegalStateException.class, () -> store.execute("bookings key1", "request", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+        var retry = store.execute("bookings key1", "request", () -> {
+            calls.incrementAndGet();
+            return HttpResponse.create().withStatus(StatusCodes.CREATED);
+        });
+
+        assertEquals(4, calls.get());
+        assertEquals(StatusCodes.CREATED, retry.status());
+    }
+
+    @Test
+    public void testOldestEntriesAreEvictedBeyondMaxEntries() {
+        var store = store(2);
+        var calls = new AtomicInteger();
+        for (String key : new String[]{"a", "b", "c", "a"}) {
+            store.execute(key, "request", () -> {
+                calls.incrementAndGet();
+                return HttpResponse.create().withStatus(StatusCodes.OK);
+            });
+        }
+
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void testJoiningRetryGivesUpAfterJoinTimeout() throws Exception {
+        var store = store(10, "50ms");
+        var release = new CountDownLatch(1);
+        var original = inFlight(store, "bookings key1", release);
+
+        var retry = store.execute("bookings key1", "request", () -> HttpResponse.create().withStatus(StatusCodes.CREATED));
+        assertEquals(StatusCodes.CONFLICT, retry.status());
+
+        release.countDown();
+        assertEquals(StatusCodes.CREATED, original.get().status());
+        // the original's answer is kept for later retries
+        assertSame(original.get(), store.execute("bookings key1", "request", () -> HttpResponse.create().withStatus(StatusCodes.BAD_REQUEST)));
+    }
+
+    @Test
+    public void testInFlightEntriesAreNotEvicted() throws Exception {
+        var store = store(1);
+        var release = new CountDownLatch(1);
+        var original = inFlight(store, "a", release);
+        var calls = new AtomicInteger();
+
+        for (String key : new String[]{"b", "c"}) {
+            store.execute(key, "request", () -> {
+                calls.incrementAndGet();
+                return HttpResponse.create().withStatus(StatusCodes.OK);
+            });
+        }
+        release.countDown();
+
+        // "a" was still running when the cap was exceeded, so it is the one kept
+        assertSame(original.get(), store.execute("a", "request", () -> {
+            calls.incrementAndGet();
+            return HttpResponse.create().withStatus(StatusCodes.OK);
+        }));
+        assertEquals(2, calls.get());
+    }
+}
@@ -0,0 +1,34 @@
+package io.example.api;
+
+import io.example.application.UtilizationView.UtilizationRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UtilizationReportTest {
+
+    @Test
+    public void testTotalsSumOverDays() {
+        var days = List.of(
+                new UtilizationRow("superteacher", "INSTRUCTOR", "2099-01-01", 3, 1, 1, 0.75),
+                new UtilizationRow("superteacher", "INSTRUCTOR", "2099-01-02", 1, 3, 0, 0.25));
+
+        var report = FlightEndpoint.UtilizationReport.of("superteacher", days);
+
+        assertEquals(4, report.bookedHours());
+        assertEquals(4, report.availableHours());
+        assertEquals(1, report.cancellations());
+        assertEquals(0.5, report.utilization(), 1e-9);
+        assertEquals(days, report.days());
+    }
+
+    @Test
+    public void testNoHoursMeansNoUtilization() {
+        var report = FlightEndpoint.UtilizationReport.of("superteacher", List.of());
+
+        assertEquals(0, report.bookedHours());
+        assertEquals(0.0, report.utilization());
+    }
+}
@@ -0,0 +1,52 @@
+package io.example.application;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.ConfigValueFactory;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgentCallBudgetTest {
+
+    // The shipped application.conf, without the API key it expects from the environment
+    private static Config applicationConf() {
+        return ConfigFactory.parseResources("application.conf")
+                .resolve(ConfigResolveOptions.defaults().setAllowUnresolved(true));
+    }
+
+    private static Duration modelBreakerCallTimeout(Config config, String model) {
+        return config.getDuration("flight-conditions.model-breaker." + model + ".call-timeout");
+    }
+
+    @Test
+    public void testShippedTimeoutsFitTheModelBreaker() {
+        for (String model : new String[] {"gemini-flash", "gemini-pro"}) {
+            for (String prompt : new String[] {"full", "compact"}) {
+                var config = applicationConf()
+                        .withValue("flight-conditions.agent-model", ConfigValueFactory.fromAnyRef(model))
+                        .withValue("flight-conditions.agent-prompt", ConfigValueFactory.fromAnyRef(prompt));
+                var worstCase = FlightConditionsClient.worstCaseCallTime(config);
+                assertTrue(worstCase.compareTo(modelBreakerCallTimeout(config, model)) <= 0,
+                        model + "/" + prompt + " may take " + worstCase);
+            }
+        }
+    }
+
+    @Test
+    public void testFullPromptCountsTwoRoundTripsAndThePageWalk() {
+        var config = applicationConf()
+                .withValue("flight-conditions.agent-model", ConfigValueFactory.fromAnyRef("gemini-flash"))
+                .withValue("flight-conditions.agent-prompt", ConfigValueFactory.fromAnyRef("full"))
+                .withValue("flight-conditions.weather-breaker.call-timeout", ConfigValueFactory.fromAnyRef("5s"))
+                .withValue("akka.javasdk.agent.gemini-flash.connection-timeout", ConfigValueFactory.fromAnyRef("4s"))
+                .withValue("akka.javasdk.agent.gemini-flash.response-timeout", ConfigValueFactory.fromAnyRef("10s"))
+                .withValue("akka.javasdk.agent.gemini-flash.max-retries", ConfigValueFactory.fromAnyRef(1));
+
+        // 2 round trips x (4s + 10s) x 2 attempts + 12 weather requests x 5s
+        assertEquals(Duration.ofSeconds(56 + 60), FlightConditionsClient.worstCaseCallTime(config));
+    }
+}
@@ -0,0 +1,86 @@
+package io.example.application;
+
+import akka.javasdk.testkit.KeyValueEntityTestKit;
+import io.example.application.BookingIndexEntity.Commands;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookingIndexEntityIntegrationTest {
+
+    private static final String SLOT = "2099-01-01-12";
+    private static final String OTHER_SLOT = "biggin-hill:2099-01-01-12";
+
+    private static final List<Participant> PARTICIPANTS = List.of(
+            new Participant("alice", ParticipantType.STUDENT),
+            new Participant("superplane", ParticipantType.AIRCRAFT),
+            new Participant("superteacher", ParticipantType.INSTRUCTOR));
+
+    @Test
+    public void testRecordAndCancel() {
+        var testKit = KeyValueEntityTestKit.of("booking1", BookingIndexEntity::new);
+
+        testKit.method(BookingIndexEntity::record).invoke(new Commands.Record(SLOT, PARTICIPANTS));
+        var booking = testKit.method(BookingIndexEntity::getBooking).invoke().getReply();
+        assertEquals(SLOT, booking.slotId());
+        assertTrue(booking.isBooked());
+
+        testKit.method(BookingIndexEntity::cancel).invoke(new Commands.Cancel(SLOT));
+        assertEquals("CANCELLED", testKit.getState().status());
+    }
+
+    @Test
+    public void testSameIdInAnotherSlotIsRejected() {
+        var testKit = KeyValueEntityTestKit.of("booking1", BookingIndexEntity::new);
+        testKit.method(BookingIndexEntity::record).invoke(new Commands.Record(SLOT, PARTICIPANTS));
+
+        var result = testKit.method(BookingIndexEntity::record).invoke(new Commands.Record(OTHER_SLOT, PARTICIPANTS));
+        assertTrue(result.isError());
+
+        var added = testKit.method(BookingIndexEntity::addParticipant)
+                .invoke(new Commands.AddParticipant(OTHER_SLOT, PARTICIPANTS.get(0)));
+        assertTrue(added.isError());
+
+        assertEquals(SLOT, testKit.getState().slotId());
+        assertEquals(PARTICIPANTS, testKit.getState().participants());
+    }
+
+    @Test
+    public void testCancelForAnotherSlotIsIgnored() {
+        var testKit = KeyValueEntityTestKit.of("booking1", BookingIndexEntity::new);
+        testKit.method(BookingIndexEntity::record).invoke(new Commands.Record(SLOT, PARTICIPANTS));
+
+        testKit.method(BookingIndexEntity::cancel).invoke(new Commands.Cancel(OTHER_SLOT));
+
+        assertTrue(testKit.getState().isBooked());
+    }
+
+    @Test
+    public void testRecordingTheSameBookingAgainIsANoOp() {
+        var testKit = KeyValueEntityTestKit.of("booking1", BookingIndexEntity::new);
+        testKit.method(BookingIndexEntity::record).invoke(new Commands.Record(SLOT, PARTICIPANTS));
+        testKit.method(BookingIndexEntity::record).invoke(new Commands.Record(SLOT, PARTICIPANTS));
+
+        assertEquals(PARTICIPANTS, testKit.getState().participants());
+    }
+
+    // What a cancel sees when it arrives before BookingIndexConsumer has indexed the booking:
+    // the empty state, so a cancel by booking ID alone answers No Booking until the index
+    // catches up (FlightEndpoint falls back to the slot when the slot ID is given)
+    @Test
+    public void testUnindexedBookingIsEmpty() {
+        var testKit = KeyValueEntityTestKit.of("booking-not-yet-indexed", BookingIndexEntity::new);
+
+        var booking = testKit.method(BookingIndexEntity::getBooking).invoke().getReply();
+        assertTrue(booking.isEmpty());
+        assertFalse(booking.isBooked());
+        assertFalse(booking.isForOtherSlot(SLOT));
+
+        testKit.method(BookingIndexEntity::cancel).invoke(new Commands.Cancel(SLOT));
+        assertTrue(testKit.getState().isEmpty());
+    }
+}
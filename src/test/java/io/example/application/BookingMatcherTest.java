@@ -0,0 +1,119 @@
+package io.example.application;
+
+import io.example.application.SlotAvailabilityView.AvailabilityRow;
+import io.example.domain.Participant.ParticipantType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.BiPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookingMatcherTest {
+
+    private static final BiPredicate<String, Long> NOT_BOOKED = (participantId, epochHour) -> false;
+
+    private static AvailabilityRow slot(String slotId, long epochHour) {
+        return new AvailabilityRow(slotId, "london", epochHour, List.of(), List.of(), List.of());
+    }
+
+    @Test
+    public void testPreferredInstructorRanksAboveEarlierSlots() {
+        var early = slot("2099-01-01-09", 100)
+                .with("alice", ParticipantType.STUDENT)
+                .with("bob", ParticipantType.INSTRUCTOR)
+                .with("plane1", ParticipantType.AIRCRAFT);
+        var late = slot("2099-01-01-10", 101)
+                .with("alice", ParticipantType.STUDENT)
+                .with("carol", ParticipantType.INSTRUCTOR)
+                .with("plane1", ParticipantType.AIRCRAFT);
+
+        var ranked = BookingMatcher.rank(List.of(early, late),
+                new BookingMatcher.MatchRequest("alice", 100, 101, "carol", null, 10), NOT_BOOKED);
+
+        assertEquals(2, ranked.size());
+        assertEquals("2099-01-01-10", ranked.get(0).slotId());
+        assertEquals("carol", ranked.get(0).instructorId());
+        assertEquals("2099-01-01-09", ranked.get(1).slotId());
+    }
+
+    @Test
+    public void testSlotsMissingAnInstructorOrAircraftAreNotCandidates() {
+        var noAircraft = slot("2099-01-01-09", 100)
+                .with("alice", ParticipantType.STUDENT)
+                .with("bob", ParticipantType.INSTRUCTOR);
+        var aircraftGone = slot("2099-01-01-10", 101)
+                .with("alice", ParticipantType.STUDENT)
+                .with("bob", ParticipantType.INSTRUCTOR)
+                .with("plane1", ParticipantType.AIRCRAFT)
+                .without("plane1", ParticipantType.AIRCRAFT);
+
+        var ranked = BookingMatcher.rank(List.of(noAircraft, aircraftGone),
+                new BookingMatcher.MatchRequest("alice", 100, 101, null, null, 10), NOT_BOOKED);
+
+        assertTrue(ranked.isEmpty());
+    }
+
+    @Test
+    public void testLimitCapsCandidates() {
+        var busy = slot("2099-01-01-09", 100)
+                .with("alice", ParticipantType.STUDENT)
+                .with("bob", ParticipantType.INSTRUCTOR)
+                .with("carol", ParticipantType.INSTRUCTOR)
+                .with("plane1", ParticipantType.AIRCRAFT)
+                .with("plane2", ParticipantType.AIRCRAFT);
+
+        var ranked = BookingMatcher.rank(List.of(busy),
+                new BookingMatcher.MatchRequest("alice", 100, 100, null, "plane2", 3), NOT_BOOKED);
+
+        assertEquals(3, ranked.size());
+        assertEquals("plane2", ranked.get(0).aircraftId());
+        assertEquals("plane2", ranked.get(1).aircraftId());
+    }
+
+    @Test
+    public void testParticipantsBookedElsewhereAtTheHourAreLeftOut() {
+        var london = slot("london:2099-01-01-09", 100)
+                .with("alice", ParticipantType.STUDENT)
+                .with("bob", ParticipantType.INSTRUCTOR)
+                .with("carol", ParticipantType.INSTRUCTOR)
+                .with("plane1", ParticipantType.AIRCRAFT);
+        var later = slot("london:2099-01-01-10", 101)
+                .with("alice", ParticipantType.STUDENT)
+                .with("bob", ParticipantType.INSTRUCTOR)
+                .with("plane1", ParticipantType.AIRCRAFT);
+        // bob flies from another airfield at hour 100, alice is busy at hour 101
+        BiPredicate<String, Long> bookedAt = (participantId, epochHour) ->
+                (participantId.equals("bob") && epochHour == 100) || (participantId.equals("alice") && epochHour == 101);
+
+        var ranked = BookingMatcher.rank(List.of(london, later),
+                new BookingMatcher.MatchRequest("alice", 100, 101, "bob", null, 10), bookedAt);
+
+        assertEquals(1, ranked.size());
+        assertEquals("london:2099-01-01-09", ranked.get(0).slotId());
+        assertEquals("carol", ranked.get(0).instructorId());
+    }
+
+    @Test
+    public void testLargeSlotsRankLikeTheFullCrossProduct() {
+        var big = slot("2099-01-01-09", 100).with("alice", ParticipantType.STUDENT);
+        for (int i = 0; i < 5; i++) {
+            big = big.with("i" + i, ParticipantType.INSTRUCTOR).with("a" + i, ParticipantType.AIRCRAFT);
+        }
+
+        var ranked = BookingMatcher.rank(List.of(big),
+                new BookingMatcher.MatchRequest("alice", 100, 100, "i3", "a4", 4), NOT_BOOKED);
+
+        assertEquals(List.of(
+                new BookingMatcher.Candidate("2099-01-01-09", "i3", "a4", 3),
+                new BookingMatcher.Candidate("2099-01-01-09", "i3", "a0", 2),
+                new BookingMatcher.Candidate("2099-01-01-09", "i3", "a1", 2),
+                new BookingMatcher.Candidate("2099-01-01-09", "i3", "a2", 2)), ranked);
+
+        var unpreferred = BookingMatcher.rank(List.of(big),
+                new BookingMatcher.MatchRequest("alice", 100, 100, null, null, 2), NOT_BOOKED);
+        assertEquals(List.of(
+                new BookingMatcher.Candidate("2099-01-01-09", "i0", "a0", 0),
+                new BookingMatcher.Candidate("2099-01-01-09", "i0", "a1", 0)), unpreferred);
+    }
+}
@@ -1,4 +1,106 @@
 package io.example.application;
 
+import akka.javasdk.testkit.EventSourcedTestKit;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 public class BookingSlotEntityIntegrationTest {
+
+    private static final String SLOT_ID = "2099-01-01-12";
+
+    private EventSourcedTestKit<Timeslot, BookingEvent, BookingSlotEntity> availableSlot() {
+        var testKit = EventSourcedTestKit.of(SLOT_ID, BookingSlotEntity::new);
+        testKit.method(BookingSlotEntity::markSlotAvailable)
+                .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(new Participant("alice", ParticipantType.STUDENT)));
+        testKit.method(BookingSlotEntity::markSlotAvailable)
+                .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(new Participant("superplane", ParticipantType.AIRCRAFT)));
+        testKit.method(BookingSlotEntity::markSlotAvailable)
+                .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(new Participant("superteacher", ParticipantType.INSTRUCTOR)));
+        return testKit;
+    }
+
+    @Test
+    public void testBookingPersistsSingleCompoundEvent() {
+        var testKit = availableSlot();
+
+        var result = testKit.method(BookingSlotEntity::bookSlot)
+                .invoke(new BookingSlotEntity.Command.BookReservation("alice", "superplane", "superteacher", "booking1"));
+
+        assertEquals(1, result.getAllEvents().size());
+        var confirmed = result.getNextEventOfType(BookingEvent.BookingConfirmed.class);
+        assertEquals("booking1", confirmed.bookingId());
+        assertEquals(3, confirmed.participants().size());
+        assertEquals(3, testKit.getState().findBooking("booking1").size());
+        assertTrue(testKit.getState().available().isEmpty());
+    }
+
+    @Test
+    public void testCancelPersistsSingleCompoundEvent() {
+        var testKit = availableSlot();
+        testKit.method(BookingSlotEntity::bookSlot)
+                .invoke(new BookingSlotEntity.Command.BookReservation("alice", "superplane", "superteacher", "booking1"));
+
+        var result = testKit.method(BookingSlotEntity::cancelBooking).invoke("booking1");
+
+        assertEquals(1, result.getAllEvents().size());
+        var canceled = result.getNextEventOfType(BookingEvent.BookingCanceled.class);
+        assertEquals(3, canceled.participants().size());
+        assertTrue(testKit.getState().findBooking("booking1").isEmpty());
+    }
+
+    @Test
+    public void testCancelUnknownBookingPersistsNothing() {
+        var testKit = availableSlot();
+
+        var result = testKit.method(BookingSlotEntity::cancelBooking).invoke("nope");
+
+        assertTrue(result.getAllEvents().isEmpty());
+    }
+
+    @Test
+    public void testVersionChangesOnlyWhenSlotChanges() {
+        var testKit = availableSlot();
+
+        long before = testKit.method(BookingSlotEntity::getVersion).invoke().getReply();
+        assertEquals(before, testKit.method(BookingSlotEntity::getVersion).invoke().getReply());
+
+        testKit.method(BookingSlotEntity::bookSlot)
+                .invoke(new BookingSlotEntity.Command.BookReservation("alice", "superplane", "superteacher", "booking1"));
+
+        var versioned = testKit.method(BookingSlotEntity::getVersionedSlot).invoke().getReply();
+        assertTrue(versioned.version() > before);
+        assertEquals(3, versioned.slot().findBooking("booking1").size());
+    }
+
+    @Test
+    public void testBookingUnavailableParticipantsIsRejected() {
+        var testKit = availableSlot();
+
+        var result = testKit.method(BookingSlotEntity::bookSlot)
+                .invoke(new BookingSlotEntity.Command.BookReservation("bob", "superplane", "superteacher", "booking1"));
+
+        assertTrue(result.isError());
+        assertTrue(result.getAllEvents().isEmpty());
+        assertEquals(3, testKit.getState().available().size());
+    }
+
+    @Test
+    public void testRebookingSameBookingPersistsNothing() {
+        var testKit = availableSlot();
+        var reservation = new BookingSlotEntity.Command.BookReservation("alice", "superplane", "superteacher", "booking1");
+        testKit.method(BookingSlotEntity::bookSlot).invoke(reservation);
+
+        var retry = testKit.method(BookingSlotEntity::bookSlot).invoke(reservation);
+        assertFalse(retry.isError());
+        assertTrue(retry.getAllEvents().isEmpty());
+
+        var other = testKit.method(BookingSlotEntity::bookSlot)
+                .invoke(new BookingSlotEntity.Command.BookReservation("bob", "superplane", "superteacher", "booking1"));
+        assertTrue(other.isError());
+    }
 }
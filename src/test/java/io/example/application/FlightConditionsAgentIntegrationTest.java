@@ -1,7 +1,6 @@
 package io.example.application;
 
 import akka.javasdk.testkit.TestKitSupport;
-import io.example.api.FlightEndpoint;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
@@ -25,12 +24,11 @@ public class FlightConditionsAgentIntegrationTest extends TestKitSupport {
     public void testGoodFlightConditions() {
 
         // Good call to agent as weather in London at midday should meet flying requirements
-        var callToAgentBad = new FlightEndpoint.callToAgent(nextDay+"-12", "London");
         var sessionId1 = UUID.randomUUID().toString();
         FlightConditionsAgent.ConditionsReport reportGood = componentClient.forAgent()
                 .inSession(sessionId1)
                 .method(FlightConditionsAgent::weatherReport)
-                .invoke(new FlightConditionsAgent.AgentCommand(callToAgentBad.timeSlotID(), callToAgentBad.location()));
+                .invoke(new FlightConditionsAgent.AgentCommand(nextDay + "-12", "London"));
         System.out.println(reportGood.justification());
         assertEquals(true, reportGood.meetsRequirements());
     }
@@ -41,12 +39,11 @@ public class FlightConditionsAgentIntegrationTest extends TestKitSupport {
     public void testBadFlightConditions() {
 
         // Bad call to agent due to nighttime flying being prohibited in this example
-        var callToAgentGood = new FlightEndpoint.callToAgent(nextDay+"-23", "London");
         var sessionId2 = UUID.randomUUID().toString();
         FlightConditionsAgent.ConditionsReport reportBad = componentClient.forAgent()
                 .inSession(sessionId2)
                 .method(FlightConditionsAgent::weatherReport)
-                .invoke(new FlightConditionsAgent.AgentCommand(callToAgentGood.timeSlotID(), callToAgentGood.location()));
+                .invoke(new FlightConditionsAgent.AgentCommand(nextDay + "-23", "London"));
 
         assertEquals(false, reportBad.meetsRequirements());
 
@@ -62,17 +59,13 @@ public class FlightConditionsAgentIntegrationTest extends TestKitSupport {
     @EnabledIfEnvironmentVariable(named = "GOOGLE_API_KEY", matches = ".+")
     public void testOutOfForecastRange() {
 
-        var callToAgentOutOfRange = new FlightEndpoint.callToAgent(afterTenDays + "-12", "London");
         var sessionId3 = UUID.randomUUID().toString();
 
         assertThrows(RuntimeException.class, () -> {
             componentClient.forAgent()
                     .inSession(sessionId3)
                     .method(FlightConditionsAgent::weatherReport)
-                    .invoke(new FlightConditionsAgent.AgentCommand(
-                            callToAgentOutOfRange.timeSlotID(),
-                            callToAgentOutOfRange.location()
-                    ));
+                    .invoke(new FlightConditionsAgent.AgentCommand(afterTenDays + "-12", "London"));
         });
     }
 }
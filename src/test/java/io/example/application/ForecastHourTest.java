@@ -0,0 +1,68 @@
+package io.example.application;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ForecastHourTest {
+
+    static JsonNode recordedPage() throws IOException {
+        try (var in = ForecastHourTest.class.getResourceAsStream("/forecasts/london-2025-06-01.json")) {
+            return new ObjectMapper().readTree(in);
+        }
+    }
+
+    @Test
+    public void testExtractsHourFromRecordedPage() throws IOException {
+        var hour = ForecastHour.extract(recordedPage(), "2025-06-01-12").orElseThrow();
+
+        assertEquals(18.5, hour.temperatureCelsius());
+        assertEquals(14, hour.windSpeedKph());
+        assertEquals(25, hour.windGustKph());
+        assertEquals(16, hour.visibilityKm());
+        assertTrue(hour.daytime());
+        assertEquals(5, hour.thunderstormProbability());
+        assertTrue(hour.meetsRequirements());
+    }
+
+    @Test
+    public void testReportsBrokenLimits() throws IOException {
+        var page = recordedPage();
+
+        assertEquals(2, ForecastHour.extract(page, "2025-06-01-14").orElseThrow().violations().size());
+        assertEquals(2, ForecastHour.extract(page, "2025-06-01-16").orElseThrow().violations().size());
+        assertFalse(ForecastHour.extract(page, "2025-06-01-22").orElseThrow().meetsRequirements());
+        assertTrue(ForecastHour.extract(page, "2025-06-01-13").isEmpty());
+    }
+
+    @Test
+    public void testMissingValuesAreUnknownAndNotSafe() throws IOException {
+        var page = new ObjectMapper().readTree("""
+                {"forecastHours": [{
+                  "interval": {"startTime": "2099-01-01T12:00:00Z"},
+                  "temperature": {"degrees": 18.5},
+                  "visibility": {"distance": 16},
+                  "isDaytime": true,
+                  "thunderstormProbability": 5
+                }]}
+                """);
+
+        var hour = ForecastHour.extract(page, "2099-01-01-12").orElseThrow();
+
+        assertNull(hour.windSpeedKph());
+        assertNull(hour.windGustKph());
+        assertFalse(hour.isComplete());
+        assertFalse(hour.meetsRequirements());
+        assertEquals(List.of("wind speed is unknown", "wind gusts are unknown"), hour.violations());
+    }
+
+    @Test
+    public void testRecordedHoursAreComplete() throws IOException {
+        assertTrue(ForecastHour.extractAll(recordedPage()).stream().allMatch(ForecastHour::isComplete));
+    }
+}
@@ -0,0 +1,48 @@
+package io.example.application;
+
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.ConfigValueFactory;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GoogleWeatherServiceTest {
+
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
+
+    private static GoogleWeatherService service(int maxEntries) {
+        var settings = ConfigFactory.parseResources("application.conf")
+                .resolve(ConfigResolveOptions.defaults().setAllowUnresolved(true))
+                .getConfig("flight-conditions")
+                .withValue("stale-forecast-max-entries", ConfigValueFactory.fromAnyRef(maxEntries));
+        return new GoogleWeatherService(settings, "unused");
+    }
+
+    private static String slotInHours(int hours) {
+        return LocalDateTime.now(ZoneOffset.UTC).plusHours(hours).format(SLOT_FORMAT);
+    }
+
+    @Test
+    public void testLastKnownForecastsAreCappedOldestFirst() {
+        var service = service(3);
+        for (int hour = 1; hour <= 5; hour++) {
+            service.rememberForecast("London", slotInHours(hour), "{}");
+        }
+        assertEquals(3, service.lastKnownForecastCount());
+    }
+
+    @Test
+    public void testForecastsForStartedSlotsAreDropped() {
+        var service = service(100);
+        service.rememberForecast("London", slotInHours(-2), "{}");
+        service.rememberForecast("London", slotInHours(-1), "{}");
+        service.rememberForecast("London", slotInHours(3), "{}");
+
+        assertEquals(1, service.lastKnownForecastCount());
+    }
+}
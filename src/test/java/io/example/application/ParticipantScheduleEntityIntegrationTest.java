@@ -0,0 +1,69 @@
+package io.example.application;
+
+import akka.javasdk.testkit.KeyValueEntityTestKit;
+import io.example.domain.SlotKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParticipantScheduleEntityIntegrationTest {
+
+    private static final String AT_LONDON = "2099-01-01-12";
+    private static final String AT_BIGGIN_HILL = "biggin-hill:2099-01-01-12";
+    private static final long HOUR = SlotKey.parse(AT_LONDON).epochHour();
+
+    @Test
+    public void testUnmarkAtOneAirfieldKeepsAvailabilityAtAnother() {
+        var testKit = KeyValueEntityTestKit.of("superteacher", ParticipantScheduleEntity::new);
+
+        testKit.method(ParticipantScheduleEntity::markAvailable).invoke(AT_LONDON);
+        testKit.method(ParticipantScheduleEntity::markAvailable).invoke(AT_BIGGIN_HILL);
+        testKit.method(ParticipantScheduleEntity::unmarkAvailable).invoke(AT_BIGGIN_HILL);
+        assertTrue(testKit.getState().available().isSet(HOUR));
+
+        testKit.method(ParticipantScheduleEntity::unmarkAvailable).invoke(AT_LONDON);
+        assertFalse(testKit.getState().available().isSet(HOUR));
+    }
+
+    @Test
+    public void testCancelAtOneAirfieldKeepsABookingAtAnother() {
+        var testKit = KeyValueEntityTestKit.of("superteacher", ParticipantScheduleEntity::new);
+
+        testKit.method(ParticipantScheduleEntity::book).invoke(AT_LONDON);
+        testKit.method(ParticipantScheduleEntity::book).invoke(AT_BIGGIN_HILL);
+        testKit.method(ParticipantScheduleEntity::cancel).invoke(AT_BIGGIN_HILL);
+
+        assertTrue(testKit.method(ParticipantScheduleEntity::isBookedAt).invoke(HOUR).getReply());
+        assertEquals(List.of(HOUR), testKit.method(ParticipantScheduleEntity::bookedHoursWithin)
+                .invoke(new ParticipantScheduleEntity.HourRange(HOUR, HOUR + 1)).getReply());
+    }
+
+    @Test
+    public void testBookingTakesOnlyThatSlotsAvailability() {
+        var testKit = KeyValueEntityTestKit.of("superteacher", ParticipantScheduleEntity::new);
+
+        testKit.method(ParticipantScheduleEntity::markAvailable).invoke(AT_LONDON);
+        testKit.method(ParticipantScheduleEntity::markAvailable).invoke(AT_BIGGIN_HILL);
+        testKit.method(ParticipantScheduleEntity::book).invoke(AT_LONDON);
+
+        var state = testKit.getState();
+        assertTrue(state.booked().isSet(HOUR));
+        assertTrue(state.available().isSet(HOUR));
+    }
+
+    @Test
+    public void testRedeliveredEventsAreNoOps() {
+        var testKit = KeyValueEntityTestKit.of("superteacher", ParticipantScheduleEntity::new);
+
+        testKit.method(ParticipantScheduleEntity::book).invoke(AT_LONDON);
+        testKit.method(ParticipantScheduleEntity::book).invoke(AT_LONDON);
+        testKit.method(ParticipantScheduleEntity::cancel).invoke(AT_LONDON);
+        assertFalse(testKit.getState().booked().isSet(HOUR));
+
+        testKit.method(ParticipantScheduleEntity::cancel).invoke(AT_LONDON);
+        assertFalse(testKit.getState().booked().isSet(HOUR));
+        assertTrue(testKit.getState().bookedSlots().isEmpty());
+    }
+}
@@ -0,0 +1,76 @@
+package io.example.application;
+
+import akka.javasdk.DependencyProvider;
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import com.typesafe.config.ConfigFactory;
+import io.example.application.FlightConditionsAgent.PromptMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Checks that the compact prompt reaches the same verdicts as the full prompt, on a recorded
+// forecast page served in place of the live weather API
+public class PromptCompactionIntegrationTest extends TestKitSupport {
+
+    private static final String RECORDED_PAGE = readRecordedPage();
+
+    private final GoogleWeatherService recordedWeather =
+            new GoogleWeatherService(ConfigFactory.load().getConfig("flight-conditions"), "recorded") {
+                @Override
+                public String getGoogleWeather(String timeSlotId, String location) {
+                    return RECORDED_PAGE;
+                }
+            };
+    private final AgentMetrics metrics = new AgentMetrics();
+
+    @Override
+    protected TestKit.Settings testKitSettings() {
+        return TestKit.Settings.DEFAULT.withDependencyProvider(new DependencyProvider() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getDependency(Class<T> clazz) {
+                if (clazz == GoogleWeatherService.class) return (T) recordedWeather;
+                if (clazz == AgentMetrics.class) return (T) metrics;
+                throw new IllegalArgumentException("No dependency provided for " + clazz.getName());
+            }
+        });
+    }
+
+    // One good hour, then strong wind, poor visibility with storms, and night
+    private static final List<String> RECORDED_HOURS =
+            List.of("2025-06-01-09", "2025-06-01-12", "2025-06-01-14", "2025-06-01-16", "2025-06-01-22");
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "GOOGLE_API_KEY", matches = ".+")
+    public void testCompactPromptMatchesFullPrompt() {
+        for (String timeSlotId : RECORDED_HOURS) {
+            var full = verdict(timeSlotId, PromptMode.FULL);
+            var compact = verdict(timeSlotId, PromptMode.COMPACT);
+
+            assertEquals(full.meetsRequirements(), compact.meetsRequirements(),
+                    timeSlotId + "\nFull: " + full.justification() + "\nCompact: " + compact.justification());
+        }
+    }
+
+    private FlightConditionsAgent.ConditionsReport verdict(String timeSlotId, PromptMode mode) {
+        return componentClient.forAgent()
+                .inSession(FlightConditionsAgent.sessionId("London", timeSlotId) + "-" + mode)
+                .method(FlightConditionsAgent::weatherReport)
+                .invoke(new FlightConditionsAgent.AgentCommand(timeSlotId, "London", mode));
+    }
+
+    private static String readRecordedPage() {
+        try (var in = PromptCompactionIntegrationTest.class.getResourceAsStream("/forecasts/london-2025-06-01.json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.example.application;
+
+import akka.javasdk.testkit.KeyValueEntityTestKit;
+import io.example.application.UtilizationEntity.Apply;
+import io.example.application.UtilizationEntity.Change;
+import io.example.domain.Participant.ParticipantType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UtilizationEntityIntegrationTest {
+
+    private static final String DAY = "2099-01-01";
+
+    private static Apply change(String slotId, Change change, String bookingId) {
+        return new Apply("superteacher", ParticipantType.INSTRUCTOR, DAY, slotId, change, bookingId);
+    }
+
+    private static Apply change(int hourOfDay, Change change, String bookingId) {
+        return change("%s-%02d".formatted(DAY, hourOfDay), change, bookingId);
+    }
+
+    @Test
+    public void testHoursMoveBetweenAvailableAndBooked() {
+        var testKit = KeyValueEntityTestKit.of(UtilizationEntity.entityId("superteacher", DAY), UtilizationEntity::new);
+
+        testKit.method(UtilizationEntity::apply).invoke(change(9, Change.MARK, null));
+        testKit.method(UtilizationEntity::apply).invoke(change(10, Change.MARK, null));
+        testKit.method(UtilizationEntity::apply).invoke(change(23, Change.MARK, null));
+        testKit.method(UtilizationEntity::apply).invoke(change(9, Change.BOOK, "booking1"));
+        testKit.method(UtilizationEntity::apply).invoke(change(23, Change.UNMARK, null));
+
+        var state = testKit.getState();
+        assertEquals(List.of("2099-01-01-10"), state.availableSlots());
+        assertEquals(Map.of("booking1", "2099-01-01-09"), state.bookings());
+        assertEquals(1, state.availableHourCount());
+        assertEquals(1, state.bookedHourCount());
+        assertEquals("INSTRUCTOR", state.participantType());
+        assertEquals(DAY, state.day());
+    }
+
+    @Test
+    public void testRedeliveredChangesAreNoOps() {
+        var testKit = KeyValueEntityTestKit.of(UtilizationEntity.entityId("superteacher", DAY), UtilizationEntity::new);
+
+        testKit.method(UtilizationEntity::apply).invoke(change(9, Change.MARK, null));
+        testKit.method(UtilizationEntity::apply).invoke(change(9, Change.MARK, null));
+        testKit.method(UtilizationEntity::apply).invoke(change(9, Change.BOOK, "booking1"));
+        testKit.method(UtilizationEntity::apply).invoke(change(9, Change.BOOK, "booking1"));
+        assertEquals(1, testKit.getState().bookedHourCount());
+
+        testKit.method(UtilizationEntity::apply).invoke(change(9, Change.CANCEL, "booking1"));
+        testKit.method(UtilizationEntity::apply).invoke(change(9, Change.CANCEL, "booking1"));
+
+        var state = testKit.getState();
+        assertEquals(0, state.bookedHourCount());
+        assertEquals(0, state.availableHourCount());
+        assertEquals(List.of("booking1"), state.canceledBookings());
+    }
+
+    @Test
+    public void testSameHourAtTwoAirfieldsCountsTwice() {
+        var testKit = KeyValueEntityTestKit.of(UtilizationEntity.entityId("superteacher", DAY), UtilizationEntity::new);
+
+        testKit.method(UtilizationEntity::apply).invoke(change("2099-01-01-09", Change.MARK, null));
+        testKit.method(UtilizationEntity::apply).invoke(change("biggin-hill:2099-01-01-09", Change.MARK, null));
+        assertEquals(2, testKit.getState().availableHourCount());
+
+        testKit.method(UtilizationEntity::apply).invoke(change("biggin-hill:2099-01-01-09", Change.UNMARK, null));
+        assertEquals(List.of("2099-01-01-09"), testKit.getState().availableSlots());
+
+        testKit.method(UtilizationEntity::apply).invoke(change("2099-01-01-09", Change.BOOK, "booking1"));
+        testKit.method(UtilizationEntity::apply).invoke(change("biggin-hill:2099-01-01-09", Change.BOOK, "booking2"));
+        assertEquals(2, testKit.getState().bookedHourCount());
+
+        testKit.method(UtilizationEntity::apply).invoke(change("biggin-hill:2099-01-01-09", Change.CANCEL, "booking2"));
+        var state = testKit.getState();
+        assertEquals(1, state.bookedHourCount());
+        assertEquals(List.of("booking2"), state.canceledBookings());
+    }
+}
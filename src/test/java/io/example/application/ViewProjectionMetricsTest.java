@@ -0,0 +1,44 @@
+package io.example.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ViewProjectionMetricsTest {
+
+    @Test
+    public void testLagIsTheTimeSinceTheAppliedEventWasPersisted() {
+        var metrics = ViewProjectionMetrics.forView("test-view-lag");
+        metrics.recordEvent(Instant.now().minus(Duration.ofSeconds(30)));
+
+        var snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.eventsApplied());
+        assertTrue(snapshot.lagMillis() >= 30_000, snapshot.toString());
+        assertFalse(snapshot.caughtUp());
+    }
+
+    @Test
+    public void testAnOlderSliceStillCountsWithinTheWindow() {
+        var metrics = ViewProjectionMetrics.forView("test-view-slices");
+        var old = Instant.now().minus(Duration.ofMinutes(2));
+        metrics.recordEvent(old);
+        metrics.recordEvent(Instant.now());
+
+        var snapshot = metrics.snapshot();
+        assertTrue(snapshot.lagMillis() < 5_000, snapshot.toString());
+        assertTrue(snapshot.maxLagMillis() >= 120_000, snapshot.toString());
+        assertTrue(snapshot.newestEventTime().isAfter(old));
+        assertFalse(snapshot.caughtUp());
+    }
+
+    @Test
+    public void testRegisteredViewsAreListed() {
+        ViewProjectionMetrics.forView("test-view-listed").recordEvent(null);
+
+        assertTrue(ViewProjectionMetrics.snapshot("test-view-listed").isPresent());
+        assertTrue(ViewProjectionMetrics.snapshot("test-view-unknown").isEmpty());
+    }
+}
@@ -0,0 +1,32 @@
+package io.example.application;
+
+import akka.javasdk.testkit.KeyValueEntityTestKit;
+import io.example.application.WaitlistEntity.Intent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WaitlistEntityIntegrationTest {
+
+    private static final Intent INTENT = new Intent("booking1", "alice", "superplane", "superteacher");
+
+    @Test
+    public void testIntentsWaitUntilTheSlotStarts() {
+        var testKit = KeyValueEntityTestKit.of("biggin-hill:2099-01-01-12", WaitlistEntity::new);
+
+        testKit.method(WaitlistEntity::join).invoke(INTENT);
+        testKit.method(WaitlistEntity::join).invoke(INTENT);
+        testKit.method(WaitlistEntity::expire).invoke();
+
+        var waitlist = testKit.method(WaitlistEntity::getWaitlist).invoke().getReply();
+        assertEquals(1, waitlist.intents().size());
+    }
+
+    @Test
+    public void testStartedSlotTakesNoIntents() {
+        var testKit = KeyValueEntityTestKit.of("biggin-hill:2000-01-01-12", WaitlistEntity::new);
+
+        assertTrue(testKit.method(WaitlistEntity::join).invoke(INTENT).isError());
+        assertTrue(testKit.method(WaitlistEntity::getWaitlist).invoke().getReply().intents().isEmpty());
+    }
+}
@@ -0,0 +1,115 @@
+package io.example.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.example.domain.Participant.ParticipantType;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactEventMigrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactEventMigrationTest.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final List<BookingEvent> EVENTS = List.of(
+            new BookingEvent.ParticipantMarkedAvailable("biggin-hill:2099-01-01-12", "alice", ParticipantType.STUDENT),
+            new BookingEvent.ParticipantUnmarkedAvailable("biggin-hill:2099-01-01-12", "superplane", ParticipantType.AIRCRAFT),
+            new BookingEvent.ParticipantBooked("2099-01-01-12", "superteacher", ParticipantType.INSTRUCTOR, "booking1"),
+            new BookingEvent.BookingConfirmed("2099-01-01-12", "booking1", List.of(
+                    new Participant("alice", ParticipantType.STUDENT),
+                    new Participant("superplane", ParticipantType.AIRCRAFT),
+                    new Participant("superteacher", ParticipantType.INSTRUCTOR))));
+
+    // The form a later release writes, with short field names (version 1), nested ones included
+    private static JsonNode compactJson(BookingEvent event) {
+        return compact(mapper.valueToTree(event));
+    }
+
+    private static JsonNode compact(JsonNode node) {
+        if (node instanceof ArrayNode array) {
+            array.forEach(CompactEventMigrationTest::compact);
+        } else if (node instanceof ObjectNode object) {
+            CompactEventMigration.FIELD_NAMES.forEach((fullName, shortName) -> {
+                if (object.has(fullName)) object.set(shortName, compact(object.remove(fullName)));
+            });
+        }
+        return node;
+    }
+
+    @Test
+    public void testEventsAreStillWrittenWithFullNames() {
+        for (BookingEvent event : EVENTS) {
+            JsonNode written = mapper.valueToTree(event);
+            assertTrue(written.has("slotId"), written.toString());
+            assertFalse(written.has("s"), written.toString());
+        }
+    }
+
+    @Test
+    public void testCompactEventsFromALaterReleaseAreRead() throws Exception {
+        var migration = new CompactEventMigration();
+        assertTrue(migration.supportedForwardVersion() > migration.currentVersion());
+        for (BookingEvent event : EVENTS) {
+            var compact = compactJson(event);
+            assertTrue(compact.has("s"), compact.toString());
+
+            var migrated = migration.transform(migration.supportedForwardVersion(), compact.deepCopy());
+            assertEquals(event, mapper.treeToValue(migrated, event.getClass()));
+        }
+    }
+
+    @Test
+    public void testNestedParticipantsAreCompactedToo() {
+        var compact = compactJson(EVENTS.get(3));
+
+        var participant = compact.get("ps").get(0);
+        assertTrue(participant.has("i"), compact.toString());
+        assertTrue(participant.has("t"), compact.toString());
+    }
+
+    // Journal bytes and serialization cost per event, with full and with short names. Not a
+    // rigorous benchmark (no forking, one JIT), but it shows what switching the writer would save.
+    @Test
+    public void testJournalSizeAndSerializationCost() throws Exception {
+        long fullBytes = 0;
+        long compactBytes = 0;
+        var compactTrees = EVENTS.stream().map(CompactEventMigrationTest::compactJson).toList();
+        for (int i = 0; i < EVENTS.size(); i++) {
+            fullBytes += mapper.writeValueAsBytes(EVENTS.get(i)).length;
+            compactBytes += mapper.writeValueAsBytes(compactTrees.get(i)).length;
+        }
+
+        int rounds = 20_000;
+        var fullTrees = EVENTS.stream().map(event -> (JsonNode) mapper.valueToTree(event)).toList();
+        long fullNanos = time(rounds, () -> {
+            for (JsonNode tree : fullTrees) mapper.writeValueAsBytes(tree);
+        });
+        long compactNanos = time(rounds, () -> {
+            for (JsonNode tree : compactTrees) mapper.writeValueAsBytes(tree);
+        });
+
+        int events = EVENTS.size();
+        log.info("full names: {} bytes/event, {} ns/event", fullBytes / events, fullNanos / rounds / events);
+        log.info("short names: {} bytes/event, {} ns/event", compactBytes / events, compactNanos / rounds / events);
+
+        assertTrue(compactBytes < fullBytes * 0.8, "compact " + compactBytes + " vs full " + fullBytes);
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    private static long time(int rounds, Work work) throws Exception {
+        for (int i = 0; i < rounds; i++) work.run(); // warm up
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) work.run();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,45 @@
+package io.example.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HourBitmapTest {
+
+    @Test
+    public void testSetAndClear() {
+        var bitmap = HourBitmap.empty().set(490_000L).set(490_063L).set(490_064L);
+
+        assertTrue(bitmap.isSet(490_000L));
+        assertTrue(bitmap.isSet(490_063L));
+        assertTrue(bitmap.isSet(490_064L));
+        assertFalse(bitmap.isSet(490_001L));
+
+        bitmap.clear(490_063L).clear(490_064L);
+        assertFalse(bitmap.isSet(490_063L));
+        assertFalse(bitmap.isSet(490_064L));
+        assertTrue(bitmap.isSet(490_000L));
+    }
+
+    @Test
+    public void testRangeChecksAcrossWords() {
+        var bitmap = HourBitmap.empty().set(1_000L);
+
+        assertTrue(bitmap.anySet(1_000L, 1_001L));
+        assertTrue(bitmap.anySet(900L, 1_100L));
+        assertFalse(bitmap.anySet(1_001L, 1_200L));
+        assertFalse(bitmap.anySet(900L, 1_000L));
+        assertFalse(bitmap.anySet(1_000L, 1_000L));
+    }
+
+    @Test
+    public void testHoursSetInRange() {
+        var bitmap = HourBitmap.empty().set(1_000L).set(1_023L).set(1_024L).set(1_100L);
+
+        assertEquals(List.of(1_000L, 1_023L, 1_024L), bitmap.hoursSet(1_000L, 1_100L));
+        assertEquals(List.of(1_024L, 1_100L), bitmap.hoursSet(1_024L, 1_101L));
+        assertEquals(List.of(), bitmap.hoursSet(1_001L, 1_023L));
+    }
+}